@@ -0,0 +1,66 @@
+package com.packetpub.libgdx.rutter.benchmarks;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.packetpub.libgdx.rutter.game.Assets;
+import com.packetpub.libgdx.rutter.headless.NullGL;
+
+/**
+ * @author Kevin Rutter
+ * Sets up what the game code expects to exist, once per benchmark JVM: a headless
+ * application for Gdx.app and Gdx.files, a GL that ignores every call, and the
+ * loaded assets. The assets are on the classpath, so the benchmarks run from any folder.
+ */
+public class BenchmarkEnvironment
+{
+	private static boolean started;
+
+	// static helper: prevent instantiation
+	private BenchmarkEnvironment()
+	{
+	}
+
+	/**
+	 * Starts the headless application and loads the assets, if not done yet.
+	 */
+	public static synchronized void start()
+	{
+		if (started)
+			return;
+		started = true;
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		// nothing to render, the benchmarks call into the game themselves
+		config.renderInterval = -1;
+		new HeadlessApplication(new ApplicationAdapter()
+		{
+		}, config);
+		Gdx.app.setLogLevel(Application.LOG_ERROR);
+		NullGL.install();
+		Assets.instance.init(new AssetManager());
+	}
+
+	/**
+	 * @return	A game for a WorldController, it stays on no screen when the game ends.
+	 */
+	public static Game createGame()
+	{
+		return new Game()
+		{
+			@Override
+			public void create()
+			{
+			}
+
+			@Override
+			public void setScreen(Screen screen)
+			{
+			}
+		};
+	}
+}
@@ -0,0 +1,78 @@
+package com.packetpub.libgdx.rutter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.packetpub.libgdx.rutter.game.Level;
+import com.packetpub.libgdx.rutter.game.LevelLoader;
+import com.packetpub.libgdx.rutter.game.WorldController;
+import com.packetpub.libgdx.rutter.game.objects.RiceGrain;
+import com.packetpub.libgdx.rutter.util.B2Listener;
+
+/**
+ * @author Kevin Rutter
+ * The contact listener's dispatch table: the riceball touching rice grains, one
+ * after the other over all grains of the level, and a pair without a handler.
+ * The deferred world changes are dropped after each contact, they'd only pile up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContactBenchmark
+{
+	@Param({ "100", "1000", "10000" })
+	public int collectibles;
+
+	private WorldController controller;
+	private B2Listener listener;
+	private Level level;
+	private RiceGrain[] grains;
+	private int next;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.start();
+		Pixmap pixmap = SyntheticLevels.createPixmap(SyntheticLevels.widthFor(collectibles));
+		level = new Level(LevelLoader.compile(pixmap));
+		pixmap.dispose();
+		controller = new WorldController(BenchmarkEnvironment.createGame(), level);
+		listener = controller.listener;
+		grains = new RiceGrain[collectibles];
+		for (int i = 0; i < collectibles; i++)
+			grains[i] = level.ricegrains.get(i);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		controller.dispose();
+	}
+
+	@Benchmark
+	public int collectGrain()
+	{
+		RiceGrain grain = grains[next];
+		next = (next + 1) % grains.length;
+		grain.collected = false;
+		listener.dispatch(level.riceBall, grain);
+		controller.commands.clear();
+		return controller.score;
+	}
+
+	@Benchmark
+	public void unhandledPair()
+	{
+		listener.dispatch(level.dirtPlatforms.first(), level.ricegrains.first());
+	}
+}
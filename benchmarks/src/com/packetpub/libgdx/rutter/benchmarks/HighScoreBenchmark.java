@@ -0,0 +1,102 @@
+package com.packetpub.libgdx.rutter.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.packetpub.libgdx.rutter.util.Constants;
+import com.packetpub.libgdx.rutter.util.HighScoreStore;
+import com.packetpub.libgdx.rutter.util.IoService;
+
+/**
+ * @author Kevin Rutter
+ * The high score log: reading it when the game starts, finding the rank of a new
+ * score and getting the scores the menu shows. The log is made once per size by
+ * importing a text file of random scores, in a temporary folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HighScoreBenchmark
+{
+	private static final int MAX_SCORE = 100000;
+
+	@Param({ "1000", "100000", "1000000" })
+	public int scores;
+
+	private File dir;
+	private File file;
+	private HighScoreStore store;
+	private final Random random = new Random(1);
+	private final int[] topScores = new int[Constants.HIGH_SCORES_SHOWN];
+	private final String[] topNames = new String[Constants.HIGH_SCORES_SHOWN];
+
+	@Setup
+	public void setup() throws IOException
+	{
+		BenchmarkEnvironment.start();
+		dir = File.createTempFile("scores", "");
+		dir.delete();
+		dir.mkdirs();
+		file = new File(dir, "scores.dat");
+		File legacy = new File(dir, "scores.txt");
+		PrintWriter out = new PrintWriter(new FileWriter(legacy));
+		try
+		{
+			for (int i = 0; i < scores; i++)
+			{
+				out.println("player" + i);
+				out.println(random.nextInt(MAX_SCORE));
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+		store = new HighScoreStore(file, legacy);
+		store.load();
+		// the log gets written in the background, wait for it
+		IoService.instance.dispose();
+		legacy.delete();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		file.delete();
+		dir.delete();
+	}
+
+	@Benchmark
+	public int load()
+	{
+		HighScoreStore loaded = new HighScoreStore(file, null);
+		loaded.load();
+		return loaded.size();
+	}
+
+	@Benchmark
+	public int rank()
+	{
+		return store.getRank(random.nextInt(MAX_SCORE));
+	}
+
+	@Benchmark
+	public int top()
+	{
+		return store.getTop(Constants.HIGH_SCORES_SHOWN, topScores, topNames);
+	}
+}
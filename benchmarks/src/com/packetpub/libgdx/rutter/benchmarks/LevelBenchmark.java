@@ -0,0 +1,70 @@
+package com.packetpub.libgdx.rutter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.packetpub.libgdx.rutter.game.Level;
+import com.packetpub.libgdx.rutter.game.LevelData;
+import com.packetpub.libgdx.rutter.game.LevelLoader;
+import com.packetpub.libgdx.rutter.game.TerrainCompiler;
+
+/**
+ * @author Kevin Rutter
+ * Loading a level, step by step: scanning the image's pixels into level data,
+ * merging the dirt into terrain rectangles and creating the game objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelBenchmark
+{
+	@Param({ "256", "2048", "16384" })
+	public int width;
+
+	private Pixmap pixmap;
+	private LevelData data;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.start();
+		pixmap = SyntheticLevels.createPixmap(width);
+		data = LevelLoader.compile(pixmap);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		pixmap.dispose();
+	}
+
+	@Benchmark
+	public LevelData scanPixels()
+	{
+		return LevelLoader.compile(pixmap);
+	}
+
+	@Benchmark
+	public Array<Rectangle> compileTerrain()
+	{
+		return TerrainCompiler.compile(data);
+	}
+
+	@Benchmark
+	public Level createObjects()
+	{
+		return new Level(data);
+	}
+}
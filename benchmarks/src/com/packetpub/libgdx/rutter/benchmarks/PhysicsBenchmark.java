@@ -0,0 +1,59 @@
+package com.packetpub.libgdx.rutter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.physics.box2d.World;
+import com.packetpub.libgdx.rutter.game.Level;
+import com.packetpub.libgdx.rutter.game.LevelLoader;
+import com.packetpub.libgdx.rutter.game.WorldController;
+
+/**
+ * @author Kevin Rutter
+ * Building the Box2D world for a level: a new world with a body for every
+ * terrain rectangle and object, replacing the previous one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhysicsBenchmark
+{
+	@Param({ "256", "2048", "16384" })
+	public int width;
+
+	private Level level;
+	private WorldController controller;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.start();
+		Pixmap pixmap = SyntheticLevels.createPixmap(width);
+		level = new Level(LevelLoader.compile(pixmap));
+		pixmap.dispose();
+		controller = new WorldController(BenchmarkEnvironment.createGame(), level);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		controller.dispose();
+	}
+
+	@Benchmark
+	public World initPhysics()
+	{
+		controller.setLevel(level);
+		return controller.b2world;
+	}
+}
@@ -0,0 +1,86 @@
+package com.packetpub.libgdx.rutter.benchmarks;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Blending;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.packetpub.libgdx.rutter.game.Level.BLOCK_TYPE;
+
+/**
+ * @author Kevin Rutter
+ * Makes level images of any width that look like the real levels: dirt with gaps
+ * to fall into the water, raised platforms, rice grains over the dirt and bugs,
+ * nori and guns spread out over the level. The pattern repeats every BLOCK columns,
+ * so the number of entities grows linearly with the width.
+ */
+public class SyntheticLevels
+{
+	// same height as the real levels
+	public static final int HEIGHT = 9;
+	// columns after which the pattern repeats
+	public static final int BLOCK = 32;
+	// rice grains in every block
+	public static final int GRAINS_PER_BLOCK = 7;
+
+	private static final int GROUND = 3;
+	private static final int PLATFORM = 5;
+
+	// static helper: prevent instantiation
+	private SyntheticLevels()
+	{
+	}
+
+	/**
+	 * @param grains	Number of rice grains needed.
+	 * @return			Width of the narrowest synthetic level with at least that many grains.
+	 */
+	public static int widthFor(int grains)
+	{
+		return (grains + GRAINS_PER_BLOCK - 1) / GRAINS_PER_BLOCK * BLOCK;
+	}
+
+	/**
+	 * Draws a level image.
+	 * @param width		Width of the level in pixels (and meters), at least BLOCK.
+	 * @return			The image, to be disposed by the caller.
+	 */
+	public static Pixmap createPixmap(int width)
+	{
+		Pixmap pixmap = new Pixmap(width, HEIGHT, Format.RGBA8888);
+		pixmap.setBlending(Blending.None);
+		pixmap.setColor(BLOCK_TYPE.EMPTY.getColor());
+		pixmap.fill();
+		for (int x = 0; x < width; x++)
+		{
+			int column = x % BLOCK;
+			// ground with a gap at the end of every block
+			if (column < 24)
+				draw(pixmap, x, GROUND, BLOCK_TYPE.DIRT);
+			// a platform above the middle of the ground
+			if (column >= 12 && column < 20)
+				draw(pixmap, x, PLATFORM, BLOCK_TYPE.DIRT);
+			// grains on the ground and on the platform
+			if (column >= 4 && column < 12 && column % 2 == 0)
+				draw(pixmap, x, GROUND + 1, BLOCK_TYPE.ITEM_RICE_GRAIN);
+			if (column >= 13 && column < 19 && column % 2 == 1)
+				draw(pixmap, x, PLATFORM + 1, BLOCK_TYPE.ITEM_RICE_GRAIN);
+			if (column == 10)
+				draw(pixmap, x, GROUND + 2, BLOCK_TYPE.ITEM_BUG);
+			if (x % (BLOCK * 2) == 21)
+				draw(pixmap, x, PLATFORM + 2, BLOCK_TYPE.ITEM_NORI);
+			if (x % (BLOCK * 4) == 22)
+				draw(pixmap, x, PLATFORM + 2, BLOCK_TYPE.ITEM_GUN);
+		}
+		draw(pixmap, 2, GROUND + 1, BLOCK_TYPE.PLAYER_SPAWNPOINT);
+		draw(pixmap, width - BLOCK + 20, HEIGHT, BLOCK_TYPE.GOAL);
+		return pixmap;
+	}
+
+	/**
+	 * Sets the pixel of a block.
+	 * @param baseHeight	Pixel row counted from the bottom, like in LevelData.
+	 */
+	private static void draw(Pixmap pixmap, int x, int baseHeight, BLOCK_TYPE type)
+	{
+		pixmap.drawPixel(x, HEIGHT - baseHeight, type.getColor());
+	}
+}
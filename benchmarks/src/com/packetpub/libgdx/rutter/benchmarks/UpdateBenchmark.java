@@ -0,0 +1,68 @@
+package com.packetpub.libgdx.rutter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.packetpub.libgdx.rutter.game.Level;
+import com.packetpub.libgdx.rutter.game.LevelLoader;
+import com.packetpub.libgdx.rutter.game.WorldController;
+import com.packetpub.libgdx.rutter.util.Constants;
+
+/**
+ * @author Kevin Rutter
+ * One physics tick of a level: only the objects and systems, and the whole
+ * WorldController update with the Box2D step and the contacts. The riceball
+ * gets lives enough to never run out, so the game doesn't end while measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UpdateBenchmark
+{
+	private static final float TIME_STEP = 1.0f / Constants.PHYSICS_TICK_RATE;
+
+	@Param({ "256", "2048", "16384" })
+	public int width;
+
+	private Level level;
+	private WorldController controller;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.start();
+		Pixmap pixmap = SyntheticLevels.createPixmap(width);
+		level = new Level(LevelLoader.compile(pixmap));
+		pixmap.dispose();
+		controller = new WorldController(BenchmarkEnvironment.createGame(), level);
+		controller.lives = Integer.MAX_VALUE;
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		controller.dispose();
+	}
+
+	@Benchmark
+	public void levelUpdate()
+	{
+		controller.level.update(TIME_STEP);
+	}
+
+	@Benchmark
+	public void tick()
+	{
+		controller.update(TIME_STEP);
+	}
+}
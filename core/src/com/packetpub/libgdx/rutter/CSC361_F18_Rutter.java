@@ -4,12 +4,13 @@ import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.packetpub.libgdx.rutter.game.Assets;
-import com.packetpub.libgdx.rutter.screens.GameScreen;
-import com.packetpub.libgdx.rutter.screens.MenuScreen;
-import com.packetpub.libgdx.rutter.util.AudioManager;
-//import com.packetpub.libgdx.rutter.util.AudioManager;
+import com.packetpub.libgdx.rutter.screens.LoadingScreen;
+import com.packetpub.libgdx.rutter.util.Constants;
 import com.packetpub.libgdx.rutter.util.GamePreferences;
+import com.packetpub.libgdx.rutter.util.HighScoreStore;
+import com.packetpub.libgdx.rutter.util.IoService;
 
 /**
  * The new Main class that works as an application listener
@@ -19,17 +20,53 @@ import com.packetpub.libgdx.rutter.util.GamePreferences;
 
 public class CSC361_F18_Rutter extends Game
 {
+	private static final String TAG = CSC361_F18_Rutter.class.getName();
+
+	// for logging how long it takes to show something
+	private long startTime;
+	private boolean firstFrameShown;
+
 	@Override
 	public void create()
 	{
+		startTime = TimeUtils.nanoTime();
 		// Set Libgdx log level
 		Gdx.app.setLogLevel(Application.LOG_DEBUG);
-		// Load assets
-		Assets.instance.init(new AssetManager());
-		// Load preferences for audio settings and start playing music
+		// Load preferences for audio settings
 		GamePreferences.instance.load();
-		AudioManager.instance.play(Assets.instance.music.menuMusic);
-		// Start game at menu screen
-		setScreen(new MenuScreen(this, false, 0));
+		// Read the high scores while the assets load, the score window waits for them if it's first
+		HighScoreStore.instance.loadInBackground();
+		// Queue assets, they load while the loading screen is up
+		Assets.instance.load(new AssetManager());
+		// The loading screen starts the menu music and opens the menu
+		setScreen(new LoadingScreen(this, false));
+	}
+
+	/**
+	 * Keeps loading the remaining assets in the background, then renders the current screen.
+	 */
+	@Override
+	public void render()
+	{
+		if (!Assets.instance.isLoaded())
+			Assets.instance.update(Constants.ASSET_STREAM_BUDGET_MILLIS);
+		super.render();
+		if (!firstFrameShown)
+		{
+			firstFrameShown = true;
+			Gdx.app.debug(TAG, "time to first frame: " + TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(startTime)) + " ms");
+		}
+	}
+
+	/**
+	 * Frees the shared assets and finishes saving when the game closes.
+	 */
+	@Override
+	public void dispose()
+	{
+		super.dispose();
+		Assets.instance.dispose();
+		// Let queued score and preference writes finish
+		IoService.instance.dispose();
 	}
-}
\ No newline at end of file
+}
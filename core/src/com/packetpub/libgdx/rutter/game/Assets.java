@@ -4,14 +4,18 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.assets.AssetErrorListener;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.SkinLoader.SkinParameter;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.packetpub.libgdx.rutter.util.Constants;
 
 import com.badlogic.gdx.graphics.Texture;
@@ -28,11 +32,28 @@ public class Assets implements Disposable, AssetErrorListener
 
 	public static final Assets instance = new Assets();
 
+	// music files
+	private static final String SONG_01 = "music/keith303_-_brand_new_highscore.mp3";
+	private static final String SONG_02 = "music/E1M1.mp3";
+	private static final String MENU_MUSIC = "music/doom2m10.mp3";
+
+	// what the menu needs, queued first so the menu can open before the rest is loaded
+	private static final AssetDescriptor<?>[] MENU_ASSETS = {
+			new AssetDescriptor<Skin>(Constants.SKIN_RUTTER_UI, Skin.class, new SkinParameter(Constants.TEXTURE_ATLAS_UI)),
+			new AssetDescriptor<Skin>(Constants.SKIN_LIBGDX_UI, Skin.class, new SkinParameter(Constants.TEXTURE_ATLAS_LIBGDX_UI)),
+			new AssetDescriptor<Music>(MENU_MUSIC, Music.class) };
+
 	private AssetManager assetManager;
+	// assets the manager gave up on, so waiting for them doesn't hang
+	private final ObjectSet<String> failed = new ObjectSet<String>();
+	private boolean menuReady;
+	private boolean gameReady;
+	private long loadStart;
 
 	public AssetSounds sounds;
 	public AssetMusic music;
 	public AssetFonts fonts;
+	public AssetUi ui;
 	public AssetRiceBall riceball;
 	public AssetBug bug;
 	public AssetDirt dirt;
@@ -86,16 +107,39 @@ public class Assets implements Disposable, AssetErrorListener
 	}
 	
 	/**
-	 * Load up the texture atlas.
+	 * Load up every asset and wait until they are all ready.
 	 * 
 	 * @param assetManager
 	 *            The asset manager this class will use.
 	 */
 	public void init(AssetManager assetManager)
+	{
+		load(assetManager);
+		finishLoading();
+	}
+
+	/**
+	 * Queues every asset without waiting for them. The menu's assets come first,
+	 * then the texture atlas, sounds and the rest of the music.
+	 * Call update every frame until isLoaded, or finishLoading to wait.
+	 * 
+	 * @param assetManager
+	 *            The asset manager this class will use.
+	 */
+	public void load(AssetManager assetManager)
 	{
 		this.assetManager = assetManager;
+		failed.clear();
+		menuReady = false;
+		gameReady = false;
+		loadStart = TimeUtils.nanoTime();
 		// set asset manager error handler
 		assetManager.setErrorListener(this);
+		// textures lost with the GL context are reloaded through the manager, which keeps their reference counts
+		Texture.setAssetManager(assetManager);
+		// load menu assets
+		for (AssetDescriptor<?> asset : MENU_ASSETS)
+			assetManager.load(asset);
 		// load texture atlas
 		assetManager.load(Constants.TEXTURE_ATLAS_OBJECTS, TextureAtlas.class);
 		// load sounds
@@ -107,12 +151,113 @@ public class Assets implements Disposable, AssetErrorListener
 		assetManager.load("sounds/wrapper.wav", Sound.class);
 		assetManager.load("sounds/live_lost.wav", Sound.class);
 		// load music
-		assetManager.load("music/keith303_-_brand_new_highscore.mp3", Music.class);
-		assetManager.load("music/E1M1.mp3", Music.class);
-		assetManager.load("music/doom2m10.mp3", Music.class);
-		// start loading assets and wait until finished
+		assetManager.load(SONG_01, Music.class);
+		assetManager.load(SONG_02, Music.class);
+		// fonts are small and needed by the loading screen itself
+		if (fonts == null)
+			fonts = new AssetFonts();
+	}
+
+	/**
+	 * Called when the game comes back from being paused. Nothing is reloaded unless the
+	 * GL context was lost: libGDX then queues only the lost textures on the manager
+	 * (the atlas pages), keeping the same texture objects, and this waits for them.
+	 */
+	public void resume()
+	{
+		if (assetManager == null)
+			return;
+		int lost = assetManager.getQueuedAssets();
+		if (lost == 0 || !gameReady)
+		{
+			// nothing lost, or the background loading will pick the textures up
+			Gdx.app.debug(TAG, "resumed, " + lost + " assets to reload");
+			return;
+		}
+		long start = TimeUtils.nanoTime();
+		assetManager.finishLoading();
+		Gdx.app.debug(TAG, "resumed, reloaded " + lost + " lost assets in "
+				+ TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(start)) + " ms");
+	}
+
+	/**
+	 * Loads queued assets for a limited time.
+	 * @param budgetMillis	How long this may take, in milliseconds.
+	 * @return				If every asset is loaded.
+	 */
+	public boolean update(int budgetMillis)
+	{
+		if (gameReady)
+			return true;
+		boolean done = assetManager.update(budgetMillis);
+		checkMenuReady();
+		if (done)
+			onLoaded();
+		return done;
+	}
+
+	/**
+	 * Waits until every queued asset is loaded.
+	 */
+	public void finishLoading()
+	{
+		if (gameReady)
+			return;
 		assetManager.finishLoading();
-		Gdx.app.debug(TAG, "# of assets loaded: " + assetManager.getAssetNames().size);
+		checkMenuReady();
+		onLoaded();
+	}
+
+	/**
+	 * @return	Fraction of the queued assets that are loaded, from 0 to 1.
+	 */
+	public float getProgress()
+	{
+		return gameReady ? 1 : assetManager.getProgress();
+	}
+
+	/**
+	 * @return	If the menu's assets are loaded (or failed to load).
+	 */
+	public boolean isMenuLoaded()
+	{
+		return menuReady;
+	}
+
+	/**
+	 * @return	If every asset is loaded and the game can start.
+	 */
+	public boolean isLoaded()
+	{
+		return gameReady;
+	}
+
+	/**
+	 * Makes the menu's assets available as soon as they are done.
+	 */
+	private void checkMenuReady()
+	{
+		if (menuReady)
+			return;
+		for (AssetDescriptor<?> asset : MENU_ASSETS)
+		{
+			if (!assetManager.isLoaded(asset.fileName) && !failed.contains(asset.fileName))
+				return;
+		}
+		menuReady = true;
+		ui = new AssetUi(assetManager);
+		music = new AssetMusic(assetManager);
+		Gdx.app.debug(TAG, "menu assets loaded in " + TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(loadStart)) + " ms");
+	}
+
+	/**
+	 * Creates the game resource objects once everything is loaded.
+	 */
+	private void onLoaded()
+	{
+		gameReady = true;
+		Gdx.app.debug(TAG, "# of assets loaded: " + assetManager.getAssetNames().size + " in "
+				+ TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(loadStart)) + " ms");
 		for (String a : assetManager.getAssetNames())
 			Gdx.app.debug(TAG, "asset: " + a);
 
@@ -124,7 +269,6 @@ public class Assets implements Disposable, AssetErrorListener
 		}
 
 		// create game resource objects
-		fonts = new AssetFonts();
 		sounds = new AssetSounds(assetManager);
 		music = new AssetMusic(assetManager);
 		riceball = new AssetRiceBall(atlas);
@@ -138,6 +282,48 @@ public class Assets implements Disposable, AssetErrorListener
 		goal = new AssetGoal(atlas);
 	}
 
+	/**
+	 * Adds up the memory used by the textures that are loaded right now.
+	 * @return	Estimated texture memory in bytes.
+	 */
+	public long getTextureMemory()
+	{
+		Array<Texture> textures = new Array<Texture>();
+		if (assetManager != null)
+			assetManager.getAll(Texture.class, textures);
+		if (fonts != null)
+		{
+			textures.add(fonts.defaultSmall.getRegion().getTexture());
+			textures.add(fonts.defaultNormal.getRegion().getTexture());
+			textures.add(fonts.defaultBig.getRegion().getTexture());
+		}
+		long bytes = 0;
+		for (Texture texture : textures)
+		{
+			int bytesPerPixel;
+			switch (texture.getTextureData().getFormat())
+			{
+				case Alpha:
+				case Intensity:
+					bytesPerPixel = 1;
+					break;
+				case LuminanceAlpha:
+				case RGB565:
+				case RGBA4444:
+					bytesPerPixel = 2;
+					break;
+				case RGB888:
+					bytesPerPixel = 3;
+					break;
+				default:
+					bytesPerPixel = 4;
+					break;
+			}
+			bytes += (long)texture.getWidth() * texture.getHeight() * bytesPerPixel;
+		}
+		return bytes;
+	}
+
 	/**
 	 * Tell the asset manager to to unload assets.
 	 */
@@ -148,6 +334,7 @@ public class Assets implements Disposable, AssetErrorListener
 		fonts.defaultSmall.dispose();
 		fonts.defaultNormal.dispose();
 		fonts.defaultBig.dispose();
+		fonts = null;
 	}
 
 	/**
@@ -158,6 +345,28 @@ public class Assets implements Disposable, AssetErrorListener
 	public void error(AssetDescriptor asset, Throwable throwable)
 	{
 		Gdx.app.error(TAG, "Couldn't load asset '" + asset.fileName + "'", (Exception) throwable);
+		failed.add(asset.fileName);
+	}
+
+	/**
+	 * @author Kevin Rutter
+	 * Holds the skins of the menus. They are loaded once and shared by every
+	 * menu screen, so screens must not dispose them.
+	 */
+	public class AssetUi
+	{
+		public final Skin skinRutter;
+		public final Skin skinLibgdx;
+
+		/**
+		 * Gets the skins, along with their texture atlases.
+		 * @param am	The assetmanager
+		 */
+		public AssetUi(AssetManager am)
+		{
+			skinRutter = am.get(Constants.SKIN_RUTTER_UI, Skin.class);
+			skinLibgdx = am.get(Constants.SKIN_LIBGDX_UI, Skin.class);
+		}
 	}
 
 	/**
@@ -408,14 +617,24 @@ public class Assets implements Disposable, AssetErrorListener
 		public final Music menuMusic;
 
 		/**
-		 * Gets all of the music.
+		 * Gets all of the music that is loaded so far, the rest stays null.
 		 * @param am	The assetmanager
 		 */
 		public AssetMusic(AssetManager am)
 		{
-			song01 = am.get("music/keith303_-_brand_new_highscore.mp3", Music.class);
-			song02 = am.get("music/E1M1.mp3", Music.class);
-			menuMusic = am.get("music/doom2m10.mp3", Music.class);
+			song01 = get(am, SONG_01);
+			song02 = get(am, SONG_02);
+			menuMusic = get(am, MENU_MUSIC);
+		}
+		
+		/**
+		 * @param am		The assetmanager
+		 * @param file		The music file.
+		 * @return			The music, or null if it isn't loaded.
+		 */
+		private Music get(AssetManager am, String file)
+		{
+			return am.isLoaded(file, Music.class) ? am.get(file, Music.class) : null;
 		}
 	}
 }
\ No newline at end of file
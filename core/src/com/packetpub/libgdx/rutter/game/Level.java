@@ -1,9 +1,21 @@
 package com.packetpub.libgdx.rutter.game;
 
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
+import com.packetpub.libgdx.rutter.game.components.AiComponent;
+import com.packetpub.libgdx.rutter.game.components.BodyComponent;
+import com.packetpub.libgdx.rutter.game.components.CollectibleComponent;
+import com.packetpub.libgdx.rutter.game.components.RetiredComponent;
+import com.packetpub.libgdx.rutter.game.components.SpriteComponent;
+import com.packetpub.libgdx.rutter.game.components.TransformComponent;
 import com.packetpub.libgdx.rutter.game.objects.AbstractGameObject;
 import com.packetpub.libgdx.rutter.game.objects.Background;
 import com.packetpub.libgdx.rutter.game.objects.Bug;
@@ -15,6 +27,12 @@ import com.packetpub.libgdx.rutter.game.objects.Nori;
 import com.packetpub.libgdx.rutter.game.objects.RiceBall;
 import com.packetpub.libgdx.rutter.game.objects.RiceGrain;
 import com.packetpub.libgdx.rutter.game.objects.WaterOverlay;
+import com.packetpub.libgdx.rutter.game.systems.AiSystem;
+import com.packetpub.libgdx.rutter.game.systems.CollectibleSystem;
+import com.packetpub.libgdx.rutter.game.systems.PhysicsSystem;
+import com.packetpub.libgdx.rutter.game.systems.RenderSystem;
+import com.packetpub.libgdx.rutter.game.systems.SpatialIndexSystem;
+import com.packetpub.libgdx.rutter.util.SpatialGrid;
 
 /**
  * @author Kevin Rutter
@@ -25,6 +43,12 @@ public class Level
 {
 	public static final String TAG = Level.class.getName();
 	
+	// size of a cell of the object grid, in meters
+	private static final float GRID_CELL_SIZE = 8f;
+	
+	// collected pickups and bugs that have died, out of play until the reset
+	private static final Family RETIRED = Family.all(RetiredComponent.class).get();
+	
 	
 	/**
 	 * Custom data type, used for storing level data
@@ -69,10 +93,27 @@ public class Level
 		{
 			return color;
 		}
+		
+		/**
+		 * @param color		A pixel's color
+		 * @return			The block with that color, null if no block matches
+		 */
+		public static BLOCK_TYPE forColor(int color)
+		{
+			for (BLOCK_TYPE type : VALUES)
+			{
+				if (type.sameColor(color))
+					return type;
+			}
+			return null;
+		}
+		
+		private static final BLOCK_TYPE[] VALUES = values();
 	}
 	
 	// objects
 	public Array<Dirt> dirtPlatforms;
+	public Array<Rectangle> terrain;
 	public RiceBall riceBall;
 	public Array<Bug> bugs;
 	public Array<Gun> guns;
@@ -81,6 +122,15 @@ public class Level
 	public Array<Bullet> bullets;
 	public Goal goal;
 	
+	// every object that isn't always on screen, indexed by where it is
+	public SpatialGrid objects;
+	
+	// every object of the level is an entity, the systems update and draw them
+	public Engine engine;
+	private PhysicsSystem physicsSystem;
+	private AiSystem aiSystem;
+	private RenderSystem renderSystem;
+	
 	//decoration
 	public Background background;
 	public WaterOverlay waterOverlay;
@@ -91,14 +141,36 @@ public class Level
 	 */
 	public Level(String filename)
 	{
-		init(filename);
+		init(LevelLoader.load(filename), filename);
+	}
+	
+	/**
+	 * Constructor for a level that is already compiled, e.g. a generated one.
+	 * @param data	The compiled level.
+	 */
+	public Level(LevelData data)
+	{
+		init(data, data.width + "x" + data.height + " level data");
 	}
 	
 	/**
-	 * Takes in the filename of the level to be loaded then read the file
-	 * @param filename	The level filename
+	 * Dirt rows overlap: each pixel row raises a platform by a quarter of its height.
+	 * @param baseHeight	Pixel row of the dirt, counted from the bottom of the level image.
+	 * @return				Y position of the bottom of the dirt tile.
 	 */
-	private void init(String filename)
+	public static float getDirtY(int baseHeight)
+	{
+		float heightIncreaseFactor = 0.25f;
+		float offsetHeight = -2.5f;
+		return baseHeight * Dirt.HEIGHT * heightIncreaseFactor + offsetHeight;
+	}
+	
+	/**
+	 * Builds the level from the compiled level data
+	 * @param data		The compiled level
+	 * @param name		Name of the level for logging
+	 */
+	private void init(LevelData data, String name)
 	{
 		riceBall = null;
 		//objects
@@ -111,185 +183,249 @@ public class Level
 		for (int i = 0; i < 3; i++)
 			bullets.add(new Bullet());
 		
-		//load image file that represents the level data
-		Pixmap pixmap = new Pixmap(Gdx.files.internal(filename));
-		//scan pixels from top-left to bottom-right
-		int lastPixel = -1;
-		for(int pixelY = 0; pixelY < pixmap.getHeight(); pixelY++)
+		objects = new SpatialGrid(GRID_CELL_SIZE);
+		engine = new Engine();
+		physicsSystem = new PhysicsSystem(0);
+		aiSystem = new AiSystem(1);
+		renderSystem = new RenderSystem(objects);
+		engine.addSystem(physicsSystem);
+		engine.addSystem(aiSystem);
+		engine.addSystem(new CollectibleSystem(2));
+		engine.addSystem(new SpatialIndexSystem(objects, 3));
+		engine.addSystem(renderSystem);
+		
+		//create the game object for every entity in the level
+		for (int i = 0; i < data.size(); i++)
 		{
-			for(int pixelX = 0; pixelX < pixmap.getWidth(); pixelX++)
+			AbstractGameObject obj = null;
+			Entity entity = null;
+			float offsetHeight = 0;
+			int pixelX = data.getPixelX(i);
+			float baseHeight = data.getBaseHeight(i);
+			switch (data.getType(i))
 			{
-				AbstractGameObject obj = null;
-				float offsetHeight = 0;
-				//height grows from bottom to top
-				float baseHeight = pixmap.getHeight() - pixelY;
-				//get color of current pixel as 32-bit RGBA value
-				int currentPixel = pixmap.getPixel(pixelX, pixelY);
-				//find matching color value to identify block type (x,y)
-				//point and create the corresponding game object if there is a match
-				
-				//empty space
-				if(BLOCK_TYPE.EMPTY.sameColor(currentPixel))
-				{
-					//do nothing
-				}
-				
 				// dirt
-				else if(BLOCK_TYPE.DIRT.sameColor(currentPixel))
-				{
-					if(lastPixel != currentPixel)
-					{
-						obj = new Dirt();
-						float heightIncreaseFactor = 0.25f;
-						offsetHeight = -2.5f;
-						obj.position.set(pixelX, baseHeight * obj.dimension.y * heightIncreaseFactor + offsetHeight);
-						dirtPlatforms.add((Dirt)obj);
-					}
-					else
-					{
-						dirtPlatforms.get(dirtPlatforms.size - 1).increaseLength(1);
-					}
-				}
+				case DIRT:
+					obj = new Dirt();
+					obj.position.set(pixelX, getDirtY(data.getBaseHeight(i)));
+					((Dirt)obj).setLength(data.getLength(i));
+					dirtPlatforms.add((Dirt)obj);
+					entity = createEntity(obj, SpriteComponent.LAYER_DIRT, false);
+					break;
 				
 				//player spawn point
-				else if (BLOCK_TYPE.PLAYER_SPAWNPOINT.sameColor(currentPixel))
-				{
+				case PLAYER_SPAWNPOINT:
 					obj = new RiceBall();
 					offsetHeight = -3.5f;
 					obj.position.set(pixelX, baseHeight * obj.dimension.y + offsetHeight);
 					riceBall = (RiceBall) obj;
-				}
+					entity = createEntity(obj, SpriteComponent.LAYER_PLAYER, true);
+					BodyComponent ballBody = new BodyComponent().solid(1, 0.001f, 1);
+					ballBody.fixedRotation = true;
+					ballBody.center.set(obj.origin);
+					entity.add(ballBody);
+					break;
 				
 				//bug
-				else if(BLOCK_TYPE.ITEM_BUG.sameColor(currentPixel))
-				{
+				case ITEM_BUG:
 					obj = new Bug();
 					offsetHeight = -1.5f;
 					obj.position.set(pixelX, baseHeight * obj.dimension.y + offsetHeight);
 					bugs.add((Bug) obj);
-				}
+					entity = createEntity(obj, SpriteComponent.LAYER_BUG, false);
+					entity.add(centered(new BodyComponent().solid(10, 0.001f, 0.9f), obj));
+					entity.add(new AiComponent());
+					break;
 				
 				//gun
-				else if(BLOCK_TYPE.ITEM_GUN.sameColor(currentPixel))
-				{
+				case ITEM_GUN:
 					obj = new Gun();
 					offsetHeight = -1.5f;
 					obj.position.set(pixelX, baseHeight * obj.dimension.y + offsetHeight);
 					guns.add((Gun) obj);
-				}
+					entity = createCollectible(obj, SpriteComponent.LAYER_GUN);
+					break;
 				
 				//nori
-				else if(BLOCK_TYPE.ITEM_NORI.sameColor(currentPixel))
-				{
+				case ITEM_NORI:
 					obj = new Nori();
 					offsetHeight = -1.5f;
 					obj.position.set(pixelX, baseHeight * obj.dimension.y + offsetHeight);
 					nori.add((Nori) obj);
-				}
+					entity = createCollectible(obj, SpriteComponent.LAYER_NORI);
+					break;
 				
 				//rice grain
-				else if(BLOCK_TYPE.ITEM_RICE_GRAIN.sameColor(currentPixel))
-				{
+				case ITEM_RICE_GRAIN:
 					obj = new RiceGrain();
 					offsetHeight = -1.5f;
 					obj.position.set(pixelX, baseHeight * obj.dimension.y + offsetHeight);
 					ricegrains.add((RiceGrain) obj);
-				}
+					entity = createCollectible(obj, SpriteComponent.LAYER_RICE_GRAIN);
+					break;
 				
-				//rice grain
-				else if(BLOCK_TYPE.GOAL.sameColor(currentPixel))
-				{
+				//goal
+				case GOAL:
 					obj = new Goal();
 					offsetHeight = -16f;
 					obj.position.set(pixelX, baseHeight * obj.dimension.y + offsetHeight);
 					goal = (Goal)obj;
+					entity = createEntity(obj, SpriteComponent.LAYER_GOAL, false);
+					entity.add(centered(new BodyComponent().sensor(BodyType.StaticBody), obj));
 					System.out.println("goal at x:"+ goal.position.x + " y: "  + goal.position.y);
-				}
+					break;
 				
-				//unknown object/pixel color
-				else 
-				{
-					int r = 0xff & (currentPixel >>> 24); //red color channel
-					int g = 0xff & (currentPixel >>> 16); //green color channel
-					int b = 0xff & (currentPixel >>> 8); //blue color channel
-					int a = 0xff & currentPixel; //alpha channel
-					Gdx.app.error(TAG, "Unknown object at x<" + pixelX + "> y<" + pixelY + ">: r<" + r + "> g<" + g +"> b<" + b + "> a<" + a + ">");
-				}
-				lastPixel = currentPixel;
+				default:
+					break;
 			}
+			if (obj != null)
+			{
+				obj.setSpawnPoint();
+				engine.addEntity(entity);
+			}
+		}
+		
+		//bugs far from the player think less often
+		aiSystem.setFocus(riceBall);
+		
+		//bullets wait off screen with their bodies out of the simulation until fired
+		for (Bullet bullet : bullets)
+		{
+			Entity entity = createEntity(bullet, SpriteComponent.LAYER_BULLET, false);
+			BodyComponent bulletBody = new BodyComponent().solid(1, 0, 1);
+			bulletBody.center.set(bullet.origin);
+			bulletBody.active = false;
+			entity.add(bulletBody);
+			engine.addEntity(entity);
 		}
+		//collision boxes for all dirt platforms
+		terrain = TerrainCompiler.compile(data);
+		Gdx.app.debug(TAG, dirtPlatforms.size + " dirt platforms merged into " + terrain.size + " terrain boxes");
+		
 		//decorations
-		background = new Background(pixmap.getWidth() *2);
+		background = new Background(data.width *2);
 		background.position.set(-1, -1);
-		waterOverlay = new WaterOverlay(pixmap.getWidth() *2);
+		waterOverlay = new WaterOverlay(data.width *2);
 		waterOverlay.position.set(0, -3.75f);
+		waterOverlay.setSpawnPoint();
+		engine.addEntity(createEntity(background, SpriteComponent.LAYER_BACKGROUND, true));
+		Entity water = createEntity(waterOverlay, SpriteComponent.LAYER_WATER, true);
+		water.add(centered(new BodyComponent().sensor(BodyType.StaticBody), waterOverlay));
+		engine.addEntity(water);
 		
-		//free memory
-		pixmap.dispose();
-		Gdx.app.debug(TAG, "level '" + filename + "' loaded");
+		Gdx.app.debug(TAG, "level '" + name + "' loaded");
+	}
+	
+	/**
+	 * Makes an entity for a game object that is drawn.
+	 * @param obj			The game object.
+	 * @param layer			Draw layer of the object.
+	 * @param alwaysVisible	If the object is drawn without checking it is on screen.
+	 * @return				The entity, not yet added to the engine.
+	 */
+	private Entity createEntity(AbstractGameObject obj, int layer, boolean alwaysVisible)
+	{
+		Entity entity = new Entity();
+		entity.add(new TransformComponent(obj));
+		entity.add(new SpriteComponent(layer, alwaysVisible));
+		return entity;
+	}
+	
+	/**
+	 * Makes an entity for a pickup: a static sensor, the floating is only drawn.
+	 * @param obj		The pickup.
+	 * @param layer		Draw layer of the pickup.
+	 * @return			The entity, not yet added to the engine.
+	 */
+	private Entity createCollectible(AbstractGameObject obj, int layer)
+	{
+		Entity entity = createEntity(obj, layer, false);
+		entity.add(centered(new BodyComponent().sensor(BodyType.StaticBody), obj));
+		entity.add(new CollectibleComponent());
+		return entity;
 	}
 	
 	/**
-	 * Handles rendering of objects
+	 * Centers the box of a body on the object, so it covers the object's sprite.
+	 * @param body	The body component.
+	 * @param obj	The game object.
+	 * @return		The body component.
+	 */
+	private static BodyComponent centered(BodyComponent body, AbstractGameObject obj)
+	{
+		body.center.set(obj.dimension.x / 2.0f, obj.dimension.y / 2.0f);
+		return body;
+	}
+	
+	/**
+	 * Creates the bodies of every object in the level. The terrain is made separately.
+	 * @param world		The world to create the bodies in.
+	 */
+	public void createBodies(World world)
+	{
+		physicsSystem.createBodies(world);
+	}
+	
+	/**
+	 * Handles rendering of objects, skipping the ones outside of the view
 	 * @param batch Spritebatch object
+	 * @param view	The area the camera shows, in world units
 	 */
-	public void render(SpriteBatch batch) {
-		//Draw background
-		background.render(batch);
-		
-		//Draw dirt platforms
-		for(Dirt dirt : dirtPlatforms)
-			dirt.render(batch);
-		
-		//Draw bugs
-		for (Bug bug : bugs)
-			bug.render(batch);
-		
-		//Draw guns
-		for (Gun gun : guns)
-			gun.render(batch);
-		
-		//Draw Nori
-		for (Nori individualNori : nori)
-			individualNori.render(batch);
-		
-		//Draw Rice Grains
-		for (RiceGrain ricegrain : ricegrains)
-			ricegrain.render(batch);
-		
-		//draw bullets
-		for (Bullet bullet : bullets)
-			bullet.render(batch);
-		
-		//Draw Player Character
-		riceBall.render(batch);
+	public void render(SpriteBatch batch, Rectangle view) {
+		background.setView(view);
+		renderSystem.render(batch, view);
+	}
+
+	/**
+	 * Leaves the layers below a layer to the renderer's StaticLayerCache.
+	 * @param layer		The lowest layer render still draws.
+	 */
+	public void setLowestRenderedLayer(int layer)
+	{
+		renderSystem.setLowestLayer(layer);
+	}
+
+	/**
+	 * Puts every object back where the level started it, without reloading the level.
+	 */
+	public void reset()
+	{
+		physicsSystem.reset();
 		
-		//Draw Water overlay
-		waterOverlay.render(batch);
+		//finished objects come back into every system; going backwards, each removal takes the last entry
+		ImmutableArray<Entity> retired = engine.getEntitiesFor(RETIRED);
+		for (int i = retired.size() - 1; i >= 0; i--)
+			retired.get(i).remove(RetiredComponent.class);
 		
-		//draw goal
-		goal.render(batch);
+		//everything is back at its spawn point, move it back in the index too
+		Array<AbstractGameObject> indexed = objects.getObjects();
+		for (int i = 0; i < indexed.size; i++)
+			objects.update(indexed.get(i));
 	}
 
 	/**
-	 * Calls update method of each object in the level.
-	 * @param deltaTime		How long since last frame.
+	 * Remembers the body state of every moving object before a physics tick.
+	 */
+	public void savePhysicsState()
+	{
+		physicsSystem.savePhysicsState();
+	}
+	
+	/**
+	 * Moves every moving object to where it is drawn this frame.
+	 * @param alpha		How far into the next physics tick the frame is, from 0 to 1.
+	 */
+	public void interpolate(float alpha)
+	{
+		physicsSystem.interpolate(alpha);
+	}
+	
+	/**
+	 * Runs every system of the level for one tick.
+	 * @param deltaTime		How long since last tick.
 	 */
 	public void update(float deltaTime)
 	{
-		riceBall.update(deltaTime);
-		for (Dirt dirt : dirtPlatforms)
-			dirt.update(deltaTime);
-		for (Bug bug : bugs)
-			bug.update(deltaTime);
-		for (Gun gun : guns)
-			gun.update(deltaTime);
-		for (Nori individualNori : nori)
-			individualNori.update(deltaTime);
-		for (RiceGrain ricegrain : ricegrains)
-			ricegrain.update(deltaTime);
-		for (Bullet bullet: bullets)
-			bullet.update(deltaTime);
-		goal.update(deltaTime);
+		engine.update(deltaTime);
 	}
-}
\ No newline at end of file
+}
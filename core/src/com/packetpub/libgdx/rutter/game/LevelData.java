@@ -0,0 +1,88 @@
+package com.packetpub.libgdx.rutter.game;
+
+import com.packetpub.libgdx.rutter.game.Level.BLOCK_TYPE;
+
+/**
+ * @author Kevin Rutter
+ * Compiled form of a level image. Holds every entity found in the image as
+ * parallel arrays, so a level can be built without decoding the png again.
+ */
+public class LevelData
+{
+	private static final BLOCK_TYPE[] TYPES = BLOCK_TYPE.values();
+
+	// size of the source image in pixels
+	public final int width;
+	public final int height;
+
+	private final int size;
+	private final byte[] types;
+	private final int[] pixelX;
+	private final int[] baseHeight;
+	private final int[] length;
+
+	/**
+	 * Constructor for LevelData. The arrays are owned by this object afterwards.
+	 * @param width			Width of the level image.
+	 * @param height		Height of the level image.
+	 * @param size			Number of entities stored in the arrays.
+	 * @param types			BLOCK_TYPE ordinal of each entity.
+	 * @param pixelX		Pixel column of each entity.
+	 * @param baseHeight	Pixel row of each entity, counted from the bottom.
+	 * @param length		Run length of each entity (only more than 1 for dirt).
+	 */
+	public LevelData(int width, int height, int size, byte[] types, int[] pixelX, int[] baseHeight, int[] length)
+	{
+		this.width = width;
+		this.height = height;
+		this.size = size;
+		this.types = types;
+		this.pixelX = pixelX;
+		this.baseHeight = baseHeight;
+		this.length = length;
+	}
+
+	/**
+	 * @return	Number of entities in the level.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @param index		Index of the entity.
+	 * @return			Block type of the entity.
+	 */
+	public BLOCK_TYPE getType(int index)
+	{
+		return TYPES[types[index]];
+	}
+
+	/**
+	 * @param index		Index of the entity.
+	 * @return			Pixel column of the entity.
+	 */
+	public int getPixelX(int index)
+	{
+		return pixelX[index];
+	}
+
+	/**
+	 * @param index		Index of the entity.
+	 * @return			Pixel row of the entity, counted from the bottom of the image.
+	 */
+	public int getBaseHeight(int index)
+	{
+		return baseHeight[index];
+	}
+
+	/**
+	 * @param index		Index of the entity.
+	 * @return			How many pixels wide the entity is.
+	 */
+	public int getLength(int index)
+	{
+		return length[index];
+	}
+}
@@ -0,0 +1,276 @@
+package com.packetpub.libgdx.rutter.game;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.packetpub.libgdx.rutter.game.Level.BLOCK_TYPE;
+
+/**
+ * @author Kevin Rutter
+ * Turns level images into LevelData. The first load scans the png and writes a
+ * compiled copy next to it, later loads read the compiled copy as long as the
+ * png's content hash has not changed. Loaded levels are kept in memory so
+ * respawning never touches the disk.
+ */
+public class LevelLoader
+{
+	public static final String TAG = LevelLoader.class.getName();
+
+	// "RRLV" followed by the format version
+	private static final int MAGIC = 0x52524c56;
+	public static final int VERSION = 1;
+
+	public static final String COMPILED_EXTENSION = ".lvl";
+
+	// bytes before the first object: magic, version, hash, width, height and object count
+	private static final int HEADER_SIZE = 4 + 2 + 8 + 2 + 2 + 4;
+	// bytes per object: type, x, base height and length
+	private static final int OBJECT_SIZE = 1 + 2 + 2 + 2;
+
+	private static final ObjectMap<String, LevelData> cache = new ObjectMap<String, LevelData>();
+
+	// static helper: prevent instantiation
+	private LevelLoader()
+	{
+	}
+
+	/**
+	 * Gets the level data for a level image, compiling the image only if needed.
+	 * @param filename	The level filename.
+	 * @return			The compiled level.
+	 */
+	public static LevelData load(String filename)
+	{
+		LevelData data = cache.get(filename);
+		if (data != null)
+			return data;
+
+		long start = TimeUtils.nanoTime();
+		byte[] png = Gdx.files.internal(filename).readBytes();
+		long hash = hash(png);
+		FileHandle compiled = getCompiledFile(filename);
+		data = read(compiled, hash);
+		String source = "compiled file";
+		if (data == null)
+		{
+			data = compile(png);
+			write(compiled, hash, data);
+			source = "png";
+		}
+		cache.put(filename, data);
+		Gdx.app.debug(TAG, "level '" + filename + "' loaded from " + source + " in "
+				+ TimeUtils.nanosToMillis(TimeUtils.timeSinceNanos(start)) + " ms");
+		return data;
+	}
+
+	/**
+	 * Forgets every level held in memory, the next load will check the disk again.
+	 */
+	public static void clearCache()
+	{
+		cache.clear();
+	}
+
+	/**
+	 * @param filename	The level filename.
+	 * @return			Where the compiled copy of the level is stored.
+	 */
+	private static FileHandle getCompiledFile(String filename)
+	{
+		int dot = filename.lastIndexOf('.');
+		String name = dot < 0 ? filename : filename.substring(0, dot);
+		return Gdx.files.local(name + COMPILED_EXTENSION);
+	}
+
+	/**
+	 * @param bytes		Contents of the level image.
+	 * @return			Hash used to tell whether the compiled copy is stale.
+	 */
+	private static long hash(byte[] bytes)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		return crc.getValue() ^ ((long)bytes.length << 32);
+	}
+
+	/**
+	 * Scans the pixels of a level image from top-left to bottom-right and
+	 * records an entity for every known color.
+	 * @param png	Contents of the level image.
+	 * @return		The compiled level.
+	 */
+	public static LevelData compile(byte[] png)
+	{
+		Pixmap pixmap = new Pixmap(png, 0, png.length);
+		try
+		{
+			return compile(pixmap);
+		}
+		finally
+		{
+			//free memory
+			pixmap.dispose();
+		}
+	}
+
+	/**
+	 * Scans the pixels of a level image from top-left to bottom-right and
+	 * records an entity for every known color.
+	 * @param pixmap	The decoded level image.
+	 * @return			The compiled level.
+	 */
+	public static LevelData compile(Pixmap pixmap)
+	{
+		int width = pixmap.getWidth();
+		int height = pixmap.getHeight();
+		int capacity = 16;
+		int size = 0;
+		byte[] types = new byte[capacity];
+		int[] pixelX = new int[capacity];
+		int[] baseHeight = new int[capacity];
+		int[] length = new int[capacity];
+
+		int lastPixel = -1;
+		for (int pixelY = 0; pixelY < height; pixelY++)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				int currentPixel = pixmap.getPixel(x, pixelY);
+				BLOCK_TYPE type = BLOCK_TYPE.forColor(currentPixel);
+				if (type == null)
+				{
+					//unknown object/pixel color
+					int r = 0xff & (currentPixel >>> 24); //red color channel
+					int g = 0xff & (currentPixel >>> 16); //green color channel
+					int b = 0xff & (currentPixel >>> 8); //blue color channel
+					int a = 0xff & currentPixel; //alpha channel
+					Gdx.app.error(TAG, "Unknown object at x<" + x + "> y<" + pixelY + ">: r<" + r + "> g<" + g +"> b<" + b + "> a<" + a + ">");
+				}
+				else if (type == BLOCK_TYPE.DIRT && lastPixel == currentPixel)
+				{
+					// continue the dirt platform started by an earlier pixel
+					length[size - 1]++;
+				}
+				else if (type != BLOCK_TYPE.EMPTY)
+				{
+					if (size == capacity)
+					{
+						capacity *= 2;
+						types = Arrays.copyOf(types, capacity);
+						pixelX = Arrays.copyOf(pixelX, capacity);
+						baseHeight = Arrays.copyOf(baseHeight, capacity);
+						length = Arrays.copyOf(length, capacity);
+					}
+					types[size] = (byte)type.ordinal();
+					pixelX[size] = x;
+					//height grows from bottom to top
+					baseHeight[size] = height - pixelY;
+					length[size] = 1;
+					size++;
+				}
+				lastPixel = currentPixel;
+			}
+		}
+		return new LevelData(width, height, size, types, pixelX, baseHeight, length);
+	}
+
+	/**
+	 * Reads a compiled level.
+	 * @param file		The compiled file.
+	 * @param hash		Hash of the level image the file has to match.
+	 * @return			The compiled level, or null if it is missing, stale or unreadable.
+	 */
+	private static LevelData read(FileHandle file, long hash)
+	{
+		if (!file.exists())
+			return null;
+		DataInputStream in = null;
+		try
+		{
+			in = new DataInputStream(file.read(4096));
+			if (in.readInt() != MAGIC || in.readShort() != VERSION || in.readLong() != hash)
+				return null;
+			int width = in.readUnsignedShort();
+			int height = in.readUnsignedShort();
+			int size = in.readInt();
+			// a count the rest of the file can't hold comes from a damaged file
+			if (size < 0 || size > (file.length() - HEADER_SIZE) / OBJECT_SIZE)
+				throw new IOException("Bad object count " + size);
+			int typeCount = BLOCK_TYPE.values().length;
+			byte[] types = new byte[size];
+			int[] pixelX = new int[size];
+			int[] baseHeight = new int[size];
+			int[] length = new int[size];
+			for (int i = 0; i < size; i++)
+			{
+				types[i] = in.readByte();
+				if (types[i] < 0 || types[i] >= typeCount)
+					throw new IOException("Bad object type " + types[i]);
+				pixelX[i] = in.readUnsignedShort();
+				baseHeight[i] = in.readUnsignedShort();
+				length[i] = in.readUnsignedShort();
+			}
+			return new LevelData(width, height, size, types, pixelX, baseHeight, length);
+		}
+		catch (IOException e)
+		{
+			Gdx.app.error(TAG, "Couldn't read compiled level '" + file.path() + "'", e);
+			return null;
+		}
+		finally
+		{
+			StreamUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * Writes a compiled level. Failing to write is not fatal, the level will
+	 * simply be compiled again next time.
+	 * @param file		The compiled file.
+	 * @param hash		Hash of the level image the data came from.
+	 * @param data		The compiled level.
+	 */
+	private static void write(FileHandle file, long hash, LevelData data)
+	{
+		DataOutputStream out = null;
+		try
+		{
+			out = new DataOutputStream(file.write(false, 4096));
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeLong(hash);
+			out.writeShort(data.width);
+			out.writeShort(data.height);
+			out.writeInt(data.size());
+			for (int i = 0; i < data.size(); i++)
+			{
+				out.writeByte(data.getType(i).ordinal());
+				out.writeShort(data.getPixelX(i));
+				out.writeShort(data.getBaseHeight(i));
+				out.writeShort(data.getLength(i));
+			}
+		}
+		catch (IOException e)
+		{
+			Gdx.app.error(TAG, "Couldn't write compiled level '" + file.path() + "'", e);
+		}
+		catch (GdxRuntimeException e)
+		{
+			Gdx.app.error(TAG, "Couldn't write compiled level '" + file.path() + "'", e);
+		}
+		finally
+		{
+			StreamUtils.closeQuietly(out);
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.packetpub.libgdx.rutter.game;
+
+import java.util.Comparator;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.packetpub.libgdx.rutter.game.components.SpriteComponent;
+import com.packetpub.libgdx.rutter.game.objects.Background;
+import com.packetpub.libgdx.rutter.game.objects.Dirt;
+
+/**
+ * @author Kevin Rutter
+ * Keeps the parts of a level that never change, the background layers and the dirt,
+ * in SpriteCaches. Their sprites are sent to the graphics card once per level
+ * instead of being built again every frame. The dirt is cached in strips, and only
+ * the strips in view are drawn. A background layer repeats the same tile, so only
+ * a view's width of it is cached, in a SpriteCache of its own; it is moved under
+ * the view by that cache's transform, which costs the same however long the level is.
+ */
+public class StaticLayerCache implements Disposable
+{
+	public static final String TAG = StaticLayerCache.class.getName();
+
+	// width of the strips the dirt is cached in, in meters
+	private static final float CHUNK_WIDTH = 32;
+	// a SpriteCache with indices can't hold more sprites than this
+	private static final int MAX_INDEXED_SPRITES = 8191;
+
+	private Level level;
+	// the dirt
+	private SpriteCache cache;
+	// one SpriteCache per background layer, each holding only that layer's tiles
+	private SpriteCache[] backgroundCaches;
+	private int[] backgroundIds;
+	// tiles cached for each background layer
+	private int[] backgroundTiles;
+	// one cache per strip of dirt, with the area the strip covers
+	private final IntArray chunkIds = new IntArray();
+	private final FloatArray chunkLeft = new FloatArray();
+	private final FloatArray chunkRight = new FloatArray();
+
+	private final Matrix4 transform = new Matrix4();
+	private final Rectangle bounds = new Rectangle();
+
+	private static final Comparator<Dirt> LEFT_TO_RIGHT = new Comparator<Dirt>()
+	{
+		@Override
+		public int compare(Dirt a, Dirt b)
+		{
+			return Float.compare(a.position.x, b.position.x);
+		}
+	};
+
+	/**
+	 * Draws the background and the dirt of a level, caching them first if the level is new.
+	 * Called outside of the SpriteBatch's begin and end, before the rest of the level.
+	 * @param camera	The camera of the world.
+	 * @param level		The level being played.
+	 * @param view		The area the camera shows, in world units.
+	 */
+	public void render(OrthographicCamera camera, Level level, Rectangle view)
+	{
+		if (level != this.level || !coversView(level.background, view))
+			build(level, view);
+
+		Gdx.gl.glEnable(GL20.GL_BLEND);
+		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+		// every background layer scrolls at its own speed
+		Background background = level.background;
+		for (int i = 0; i < backgroundIds.length; i++)
+		{
+			int first = background.getFirstVisibleTile(i, view);
+			int tiles = background.getVisibleTileCount(i, view, first);
+			if (tiles == 0)
+				continue;
+			float x = background.getScrollX(i) + first * background.getTileWidth();
+			SpriteCache layer = backgroundCaches[i];
+			layer.setProjectionMatrix(camera.combined);
+			layer.setTransformMatrix(transform.setToTranslation(x, 0, 0));
+			layer.begin();
+			// SpriteCache adds the cache's offset in floats to the sprite offset in
+			// indices, which only lines up for a cache at the start of the mesh
+			layer.draw(backgroundIds[i], 0, tiles);
+			layer.end();
+		}
+
+		cache.setProjectionMatrix(camera.combined);
+		cache.begin();
+		for (int i = 0; i < chunkIds.size; i++)
+		{
+			if (chunkRight.get(i) >= view.x && chunkLeft.get(i) <= view.x + view.width)
+				cache.draw(chunkIds.get(i));
+		}
+		cache.end();
+		Gdx.gl.glDisable(GL20.GL_BLEND);
+	}
+
+	/**
+	 * @return	If enough of every background layer is cached to fill the view.
+	 */
+	private boolean coversView(Background background, Rectangle view)
+	{
+		for (int i = 0; i < backgroundTiles.length; i++)
+		{
+			if (background.getMaxVisibleTiles(i, view.width) > backgroundTiles[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Caches the background and dirt of a level, replacing the previous level's.
+	 * @param level		The level.
+	 * @param view		The area the camera shows, the background is cached wide enough to fill it.
+	 */
+	private void build(Level level, Rectangle view)
+	{
+		dispose();
+		this.level = level;
+		Background background = level.background;
+		Array<Dirt> dirt = new Array<Dirt>(level.dirtPlatforms);
+		dirt.sort(LEFT_TO_RIGHT);
+
+		int sprites = 0;
+		int layers = background.getLayerCount();
+		backgroundTiles = new int[layers];
+		backgroundCaches = new SpriteCache[layers];
+		backgroundIds = new int[layers];
+		for (int i = 0; i < layers; i++)
+		{
+			backgroundTiles[i] = background.getMaxVisibleTiles(i, view.width);
+			sprites += backgroundTiles[i];
+			// a SpriteCache of its own keeps the layer at the start of the mesh
+			backgroundCaches[i] = new SpriteCache(Math.max(backgroundTiles[i], 1), true);
+			backgroundCaches[i].beginCache();
+			background.cacheLayer(backgroundCaches[i], i, backgroundTiles[i]);
+			backgroundIds[i] = backgroundCaches[i].endCache();
+		}
+
+		int dirtSprites = 0;
+		for (int i = 0; i < dirt.size; i++)
+			dirtSprites += dirt.get(i).getSpriteCount();
+		sprites += dirtSprites;
+		cache = new SpriteCache(Math.max(dirtSprites, 1), dirtSprites <= MAX_INDEXED_SPRITES);
+
+		int next = 0;
+		while (next < dirt.size)
+		{
+			float end = dirt.get(next).position.x + CHUNK_WIDTH;
+			float left = Float.MAX_VALUE;
+			float right = -Float.MAX_VALUE;
+			cache.beginCache();
+			while (next < dirt.size && dirt.get(next).position.x < end)
+			{
+				Dirt platform = dirt.get(next++);
+				platform.getBounds(bounds);
+				left = Math.min(left, bounds.x);
+				right = Math.max(right, bounds.x + bounds.width);
+				platform.cache(cache);
+			}
+			chunkIds.add(cache.endCache());
+			chunkLeft.add(left);
+			chunkRight.add(right);
+		}
+
+		// the level's own rendering skips what is drawn from here
+		level.setLowestRenderedLayer(SpriteComponent.LAYER_DIRT + 1);
+		Gdx.app.debug(TAG, sprites + " sprites cached, dirt in " + chunkIds.size + " strips");
+	}
+
+	/**
+	 * Frees the cache, the next render caches the level again.
+	 */
+	@Override
+	public void dispose()
+	{
+		if (cache != null)
+			cache.dispose();
+		cache = null;
+		if (backgroundCaches != null)
+		{
+			for (int i = 0; i < backgroundCaches.length; i++)
+				backgroundCaches[i].dispose();
+		}
+		backgroundCaches = null;
+		level = null;
+		chunkIds.clear();
+		chunkLeft.clear();
+		chunkRight.clear();
+	}
+}
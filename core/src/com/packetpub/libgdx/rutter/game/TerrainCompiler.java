@@ -0,0 +1,94 @@
+package com.packetpub.libgdx.rutter.game;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.packetpub.libgdx.rutter.game.Level.BLOCK_TYPE;
+import com.packetpub.libgdx.rutter.game.objects.Dirt;
+
+/**
+ * @author Kevin Rutter
+ * Merges the dirt of a level into as few collision boxes as possible.
+ * Every dirt pixel is a cell of a grid, the cells are greedily grown into
+ * maximal rectangles (first to the right, then downwards) and each rectangle
+ * becomes one box covering exactly the dirt tiles inside it.
+ */
+public class TerrainCompiler
+{
+	// static helper: prevent instantiation
+	private TerrainCompiler()
+	{
+	}
+
+	/**
+	 * Builds the collision boxes for the dirt in a level.
+	 * @param data	The compiled level.
+	 * @return		Boxes in world units, covering the same area as the level's dirt platforms.
+	 */
+	public static Array<Rectangle> compile(LevelData data)
+	{
+		Array<Rectangle> boxes = new Array<Rectangle>();
+
+		// a platform can run past the image's width, size the grid to fit
+		int width = 0;
+		for (int i = 0; i < data.size(); i++)
+		{
+			if (data.getType(i) == BLOCK_TYPE.DIRT)
+				width = Math.max(width, data.getPixelX(i) + data.getLength(i));
+		}
+		if (width == 0)
+			return boxes;
+
+		// rows are indexed by base height, row 0 is unused
+		int rows = data.height + 1;
+		boolean[] solid = new boolean[width * rows];
+		for (int i = 0; i < data.size(); i++)
+		{
+			if (data.getType(i) != BLOCK_TYPE.DIRT)
+				continue;
+			int row = data.getBaseHeight(i) * width;
+			for (int x = data.getPixelX(i); x < data.getPixelX(i) + data.getLength(i); x++)
+				solid[row + x] = true;
+		}
+
+		// grow rectangles from the top-left, clearing cells once they are covered
+		for (int top = rows - 1; top > 0; top--)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				if (!solid[top * width + x])
+					continue;
+
+				int right = x;
+				while (right + 1 < width && solid[top * width + right + 1])
+					right++;
+
+				int bottom = top;
+				while (bottom - 1 > 0 && isSolid(solid, width, bottom - 1, x, right))
+					bottom--;
+
+				for (int row = bottom; row <= top; row++)
+				{
+					for (int cell = x; cell <= right; cell++)
+						solid[row * width + cell] = false;
+				}
+
+				float y = Level.getDirtY(bottom);
+				boxes.add(new Rectangle(x, y, right - x + 1, Level.getDirtY(top) + Dirt.HEIGHT - y));
+			}
+		}
+		return boxes;
+	}
+
+	/**
+	 * @return	If every cell of a row between two columns (inclusive) is dirt.
+	 */
+	private static boolean isSolid(boolean[] solid, int width, int row, int left, int right)
+	{
+		for (int x = left; x <= right; x++)
+		{
+			if (!solid[row * width + x])
+				return false;
+		}
+		return true;
+	}
+}
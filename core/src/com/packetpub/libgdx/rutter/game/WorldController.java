@@ -9,19 +9,24 @@ import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.MathUtils;
 import com.packetpub.libgdx.rutter.game.objects.Bug;
 import com.packetpub.libgdx.rutter.game.objects.Bullet;
-import com.packetpub.libgdx.rutter.game.objects.Dirt;
 import com.packetpub.libgdx.rutter.game.objects.Goal;
 import com.packetpub.libgdx.rutter.game.objects.Gun;
 import com.packetpub.libgdx.rutter.game.objects.Nori;
 import com.packetpub.libgdx.rutter.game.objects.RiceBall;
 import com.packetpub.libgdx.rutter.game.objects.RiceBall.JUMP_STATE;
 import com.packetpub.libgdx.rutter.game.objects.RiceGrain;
+import com.packetpub.libgdx.rutter.game.objects.Terrain;
 import com.packetpub.libgdx.rutter.game.objects.WaterOverlay;
 import com.packetpub.libgdx.rutter.screens.MenuScreen;
 import com.packetpub.libgdx.rutter.util.AudioManager;
 import com.packetpub.libgdx.rutter.util.B2Listener;
 import com.packetpub.libgdx.rutter.util.CameraHelper;
 import com.packetpub.libgdx.rutter.util.Constants;
+import com.packetpub.libgdx.rutter.util.FrameProfiler;
+import com.packetpub.libgdx.rutter.util.FrameProfiler.Phase;
+import com.packetpub.libgdx.rutter.util.InputRecording;
+import com.packetpub.libgdx.rutter.util.IoService;
+import com.packetpub.libgdx.rutter.util.WorldCommandBuffer;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -30,7 +35,6 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
 
 import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Game;
@@ -40,6 +44,8 @@ import com.badlogic.gdx.InputAdapter;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
@@ -77,6 +83,8 @@ public class WorldController extends InputAdapter implements Disposable
 	public CameraHelper cameraHelper;
 	
 	public Level level;
+	// image of the level that gets played
+	private String levelFile;
 	public Game game;
 	public int lives = Constants.LIVES_START;
 	public int highscore = 0;
@@ -90,7 +98,27 @@ public class WorldController extends InputAdapter implements Disposable
 	
 	public World b2world;
 	public B2Listener listener;
-	public ArrayList<Body> removeFlagged = new ArrayList<Body>();
+	public WorldCommandBuffer commands = new WorldCommandBuffer();
+	// user data of every terrain body, made here so it doesn't use up a random number after a replay's seed is set
+	private final Terrain terrain = new Terrain();
+	
+	// fixed timestep physics
+	private float timeStep = 1.0f / Constants.PHYSICS_TICK_RATE;
+	private int maxStepsPerFrame = Constants.MAX_PHYSICS_STEPS_PER_FRAME;
+	private float accumulator;
+	
+	// input read this frame, applied on the next tick
+	private int moveDirection;
+	private boolean jumpRequested;
+	private boolean fireRequested;
+	
+	// input of every tick since recording started, null when not recording
+	private InputRecording recording;
+	// input played back instead of the keyboard, null when not replaying
+	private InputRecording replay;
+	private int replayTick;
+	// recordings handed to the I/O thread that haven't been written yet
+	private int recordingsSaving;
 	
 	/**
 	 * Constructor for WorldController.
@@ -98,10 +126,36 @@ public class WorldController extends InputAdapter implements Disposable
 	 */
 	public WorldController(Game game)
 	{
+		this(game, Constants.LEVEL_01);
+	}
+	
+	/**
+	 * Constructor for WorldController playing a given level.
+	 * @param game 		The game application listener.
+	 * @param levelFile	Image of the level.
+	 */
+	public WorldController(Game game, String levelFile)
+	{
+		this.levelFile = levelFile;
 		init();
 		this.game = game;
 	}
 	
+	/**
+	 * Constructor for WorldController playing a level that is already built,
+	 * e.g. a generated one. Resetting the game world with R needs a level file
+	 * and isn't available.
+	 * @param game 		The game application listener.
+	 * @param level		The level.
+	 */
+	public WorldController(Game game, Level level)
+	{
+		this.game = game;
+		Gdx.input.setInputProcessor(this);
+		cameraHelper = new CameraHelper();
+		setLevel(level);
+	}
+	
 	/**
 	 * Initialization code for WorldController.
 	 * Useful to call when resetting objects.
@@ -110,11 +164,13 @@ public class WorldController extends InputAdapter implements Disposable
 	{
 		Gdx.input.setInputProcessor(this);
 		cameraHelper = new CameraHelper();
+		level = null;
 		initLevel();
 	}
 	
 	/**
-	 * Initializes a new level.
+	 * Initializes a new level. The first call builds the level and its physics world,
+	 * later calls (after losing a life) reset the existing level in place.
 	 */
 	public void initLevel()
 	{
@@ -126,11 +182,42 @@ public class WorldController extends InputAdapter implements Disposable
 		goalReached = false;
 		inWater = false;
 		timeLeftGameOverDelay = 0;
-		level = new Level(Constants.LEVEL_01);
+		if (level == null)
+		{
+			setLevel(new Level(levelFile));
+		}
+		else
+		{
+			resetLevel();
+		}
+	}
+	
+	/**
+	 * Plays a level that is already built: follows its riceball and builds a
+	 * new physics world for it. The old world is thrown away.
+	 * @param level		The level.
+	 */
+	public void setLevel(Level level)
+	{
+		this.level = level;
 		cameraHelper.setTarget(level.riceBall);
 		initPhysics();
 	}
 	
+	/**
+	 * Respawns the player by moving every object and body back to its spawn point.
+	 * Nothing is read from disk and no bodies are created.
+	 */
+	private void resetLevel()
+	{
+		long start = TimeUtils.nanoTime();
+		commands.apply(b2world);
+		clearInput();
+		level.reset();
+		cameraHelper.update(0);
+		Gdx.app.debug(TAG, "level reset in " + TimeUtils.timeSinceNanos(start) / 1000 + " us");
+	}
+	
 	/**
 	 * Initialize the world and BodyDef objects in order to track physics in Box2D.
 	 */
@@ -138,170 +225,30 @@ public class WorldController extends InputAdapter implements Disposable
 	{
 		if (b2world != null)
 			b2world.dispose();
+		commands.clear();
 		b2world = new World(new Vector2(0, -9.81f), true);
 		
-		// Dirt platforms
+		// Terrain: the dirt platforms merged into as few static boxes as possible
 		Vector2 origin = new Vector2();
-		for (Dirt dirt : level.dirtPlatforms)
+		for (Rectangle box : level.terrain)
 		{
 			BodyDef bodyDef = new BodyDef();
-			bodyDef.type = BodyType.KinematicBody;
-			bodyDef.position.set(dirt.position);
+			bodyDef.type = BodyType.StaticBody;
+			bodyDef.position.set(box.x, box.y);
 			Body body = b2world.createBody(bodyDef);
-			dirt.body = body;
 			PolygonShape polygonShape = new PolygonShape();
-			origin.x = dirt.bounds.width / 2.0f;
-			origin.y = dirt.bounds.height / 2.0f;
-			polygonShape.setAsBox(dirt.bounds.width / 2.0f, dirt.bounds.height / 2.0f, origin, 0);
+			origin.x = box.width / 2.0f;
+			origin.y = box.height / 2.0f;
+			polygonShape.setAsBox(box.width / 2.0f, box.height / 2.0f, origin, 0);
 			FixtureDef fixtureDef = new FixtureDef();
 			fixtureDef.shape = polygonShape;
 			body.createFixture(fixtureDef);
-			body.setUserData(dirt);
+			body.setUserData(terrain);
 			polygonShape.dispose();
 		}
 		
-		// Bugs
-		for (Bug bug : level.bugs)
-		{
-			BodyDef bodyDef = new BodyDef();
-			bodyDef.type = BodyType.DynamicBody;
-			bodyDef.position.set(bug.position);
-			Body body = b2world.createBody(bodyDef);
-			bug.body = body;
-			PolygonShape polygonShape = new PolygonShape();
-			origin.x = bug.dimension.x / 2.0f;
-			origin.y = bug.dimension.y / 2.0f;
-			polygonShape.setAsBox(bug.dimension.x / 2.0f, bug.dimension.y / 2.0f, origin, 0);
-			FixtureDef fixtureDef = new FixtureDef();
-			fixtureDef.shape = polygonShape;
-			fixtureDef.density = 10;
-			fixtureDef.restitution = 0.001f;
-			fixtureDef.friction = 0.9f;
-			body.createFixture(fixtureDef);
-			fixtureDef.isSensor = true;
-			body.setUserData(bug);
-			polygonShape.dispose();
-		}
-		
-		// Guns
-		for (Gun gun : level.guns)
-		{
-			BodyDef bodyDef = new BodyDef();
-			bodyDef.type = BodyType.KinematicBody;
-			bodyDef.position.set(gun.position);
-			Body body = b2world.createBody(bodyDef);
-			gun.body = body;
-			PolygonShape polygonShape = new PolygonShape();
-			origin.x = gun.dimension.x / 2.0f;
-			origin.y = gun.dimension.y / 2.0f;
-			polygonShape.setAsBox(gun.dimension.x / 2.0f, gun.dimension.y / 2.0f, origin, 0);
-			FixtureDef fixtureDef = new FixtureDef();
-			fixtureDef.shape = polygonShape;
-			fixtureDef.isSensor = true;
-			body.createFixture(fixtureDef);
-			body.setUserData(gun);
-			polygonShape.dispose();
-		}
-		
-		// Nori
-		for (Nori nori : level.nori)
-		{
-			BodyDef bodyDef = new BodyDef();
-			bodyDef.type = BodyType.KinematicBody;
-			bodyDef.position.set(nori.position);
-			Body body = b2world.createBody(bodyDef);
-			nori.body = body;
-			PolygonShape polygonShape = new PolygonShape();
-			origin.x = nori.dimension.x / 2.0f;
-			origin.y = nori.dimension.y / 2.0f;
-			polygonShape.setAsBox(nori.dimension.x / 2.0f, nori.dimension.y / 2.0f, origin, 0);
-			FixtureDef fixtureDef = new FixtureDef();
-			fixtureDef.shape = polygonShape;
-			fixtureDef.isSensor = true;
-			body.createFixture(fixtureDef);
-			body.setUserData(nori);
-			polygonShape.dispose();
-		}
-		
-		// RiceGrains
-		for (RiceGrain grain : level.ricegrains)
-		{
-			BodyDef bodyDef = new BodyDef();
-			bodyDef.type = BodyType.KinematicBody;
-			bodyDef.position.set(grain.position);
-			Body body = b2world.createBody(bodyDef);
-			grain.body = body;
-			PolygonShape polygonShape = new PolygonShape();
-			origin.x = grain.dimension.x / 2.0f;
-			origin.y = grain.dimension.y / 2.0f;
-			polygonShape.setAsBox(grain.dimension.x /2.0f, grain.dimension.y / 2.0f, origin, 0);
-			FixtureDef fixtureDef = new FixtureDef();
-			fixtureDef.shape = polygonShape;
-			fixtureDef.isSensor = true;
-			body.createFixture(fixtureDef);
-			body.setUserData(grain);
-			polygonShape.dispose();
-		}
-		
-		// Water
-		WaterOverlay water = level.waterOverlay;
-		BodyDef bodyDef = new BodyDef();
-		bodyDef.type = BodyType.StaticBody;
-		bodyDef.position.set(water.position);
-		Body body = b2world.createBody(bodyDef);
-		water.body = body;
-		PolygonShape polygonShape = new PolygonShape();
-		origin.x = water.dimension.x / 2.0f;
-		origin.y = water.dimension.y / 2.0f;
-		polygonShape.setAsBox(water.dimension.x / 2.0f, water.dimension.y / 2.0f, origin, 0);
-		FixtureDef fixtureDef = new FixtureDef();
-		fixtureDef.shape = polygonShape;
-		fixtureDef.isSensor = true;
-		body.createFixture(fixtureDef);
-		body.setUserData(water);
-		polygonShape.dispose();
-		
-		// RiceBall
-		RiceBall ball = level.riceBall;
-		bodyDef = new BodyDef();
-		bodyDef.type = BodyType.DynamicBody;
-		bodyDef.position.set(ball.position);
-		bodyDef.fixedRotation = true;
-		body = b2world.createBody(bodyDef);
-		ball.body = body;
-		polygonShape = new PolygonShape();
-		origin.x = ball.origin.x;
-		origin.y = ball.origin.y;
-		polygonShape.setAsBox(ball.dimension.x /2.0f, ball.dimension.y / 2.0f, origin, 0);
-		fixtureDef = new FixtureDef();
-		fixtureDef.shape = polygonShape;
-	//	CircleShape circle = new CircleShape();
-		//circle.setRadius(ball.origin.x/2);
-		fixtureDef.shape = polygonShape;
-		fixtureDef.density = 1;
-		fixtureDef.restitution = 0.001f;
-		fixtureDef.friction = 1f;
-		body.createFixture(fixtureDef);
-		body.setUserData(ball);
-		polygonShape.dispose();
-		
-		//Goal
-		Goal goal = level.goal;
-		bodyDef = new BodyDef();
-		bodyDef.type = BodyType.StaticBody;
-		bodyDef.position.set(goal.position);
-		body = b2world.createBody(bodyDef);
-		goal.body = body;
-		polygonShape = new PolygonShape();
-		origin.x = goal.dimension.x / 2.0f;
-		origin.y = goal.dimension.y / 2.0f;
-		polygonShape.setAsBox(goal.dimension.x / 2.0f, goal.dimension.y / 2.0f, origin, 0);
-		fixtureDef = new FixtureDef();
-		fixtureDef.shape = polygonShape;
-		fixtureDef.isSensor = true;
-		body.createFixture(fixtureDef);
-		body.setUserData(goal);
-		polygonShape.dispose();
+		// Everything else: every entity with a body component
+		level.createBodies(b2world);
 		
 		listener = new B2Listener(level, this);
         b2world.setContactListener(listener);
@@ -316,136 +263,349 @@ public class WorldController extends InputAdapter implements Disposable
 	public boolean keyUp(int keycode)
 	{
 		// Reset game world
-		if (keycode == Keys.R)
+		if (keycode == Keys.R && levelFile != null)
 		{
+			stopRecording();
+			replay = null;
 			init();
 			Gdx.app.debug(TAG, "Game world resetted");
 		}
+		// Start or stop recording the input
+		else if (keycode == Keys.F9)
+		{
+			if (recording == null)
+				startRecording();
+			else
+				stopRecording();
+		}
+		// Replay the last recording
+		else if (keycode == Keys.F10)
+		{
+			if (recordingsSaving > 0)
+			{
+				Gdx.app.debug(TAG, "the recording is still being saved");
+				return false;
+			}
+			try
+			{
+				startReplay(InputRecording.load(new File(Constants.INPUT_RECORDING)));
+			}
+			catch (IOException e)
+			{
+				Gdx.app.error(TAG, "Could not load " + Constants.INPUT_RECORDING, e);
+			}
+		}
 		return false;
 	}
 	
 	/**
-	 * Handles movement and jumping of the bunnyhead.
+	 * Reads the keys for moving, jumping and shooting. The input is applied on the
+	 * next physics tick, so a key press is not lost when a frame has no tick.
 	 * 
 	 * @param deltaTime
 	 *            How much time has passed since last frame.
 	 */
 	private void handleInputGame(float deltaTime)
 	{
-		if (cameraHelper.hasTarget())
+		if (cameraHelper.hasTarget() && level.riceBall.health > 0)
+		{
+			// Player Movement
+			if (Gdx.input.isKeyPressed(Keys.LEFT))
+				moveDirection = -1;
+			else if (Gdx.input.isKeyPressed(Keys.RIGHT))
+				moveDirection = 1;
+			else
+				moveDirection = 0;
+			if (Gdx.input.isKeyJustPressed(Keys.SPACE))
+				jumpRequested = true;
+			if (Gdx.input.isKeyJustPressed(Keys.CONTROL_LEFT))
+				fireRequested = true;
+		}
+	}
+	
+	/**
+	 * Takes a life when the riceball died or fell into the water. Runs after every
+	 * physics tick rather than every frame, so a replay loses its lives on the same
+	 * ticks as the session it was recorded from.
+	 */
+	private void checkLives()
+	{
+		if (lives > 0 && !goalReached && cameraHelper.hasTarget() && level.riceBall.health <= 0)
+		{
+			AudioManager.instance.play(Assets.instance.sounds.liveLost);
+			lives--;
+			initLevel();
+		}
+		if (lives > 0 && inWater)
 		{
-			if (level.riceBall.health > 0)
+			lives--;
+			if (lives == 0)
+				timeLeftGameOverDelay = Constants.TIME_DELAY_GAME_OVER;
+			else
+				initLevel();
+		}
+	}
+	
+	/**
+	 * Starts the level over from scratch, the way a recording or replay starts.
+	 * @param seed	Seed for the random generator, the level is built after setting it.
+	 */
+	private void restart(long seed)
+	{
+		MathUtils.random.setSeed(seed);
+		lives = Constants.LIVES_START;
+		// a game that ended before plays again
+		gameEnded = false;
+		timeLeftGameOverDelay = 0;
+		accumulator = 0;
+		clearInput();
+		init();
+	}
+	
+	/**
+	 * Restarts the level and records the input of every tick from now on.
+	 */
+	public void startRecording()
+	{
+		replay = null;
+		long seed = MathUtils.random.nextLong();
+		restart(seed);
+		recording = new InputRecording(seed, Math.round(1 / timeStep), levelFile);
+		Gdx.app.debug(TAG, "recording input, seed " + seed);
+	}
+	
+	/**
+	 * Stops recording and saves the recording in the background. Does nothing if not recording.
+	 */
+	public void stopRecording()
+	{
+		if (recording == null)
+			return;
+		final InputRecording finished = recording.copy();
+		recording = null;
+		Gdx.app.debug(TAG, "recorded " + finished.size() + " ticks, " + describeState());
+		// replaying reads the file, so F10 waits until the callback says it's written
+		recordingsSaving++;
+		IoService.instance.submit(Constants.INPUT_RECORDING, new Runnable()
+		{
+			@Override
+			public void run()
 			{
-				// Player Movement
-				if (Gdx.input.isKeyPressed(Keys.LEFT))
-				{
-					level.riceBall.body.applyForceToCenter(-50, 0, true);
-					level.riceBall.viewDirection = RiceBall.VIEW_DIRECTION.LEFT;
-					if (!level.riceBall.isJumping)
-					{
-						level.riceBall.dustParticles.setPosition(level.riceBall.position.x + level.riceBall.dimension.x / 2, level.riceBall.position.y);
-						level.riceBall.dustParticles.start();
-					}
-				}
-				else if (Gdx.input.isKeyPressed(Keys.RIGHT))
+				try
 				{
-					level.riceBall.body.applyForceToCenter(50, 0, true);
-					level.riceBall.viewDirection = RiceBall.VIEW_DIRECTION.RIGHT;
-					if (!level.riceBall.isJumping)
-					{
-						level.riceBall.dustParticles.setPosition(level.riceBall.position.x + level.riceBall.dimension.x / 2, level.riceBall.position.y);
-						level.riceBall.dustParticles.start();
-					}
+					finished.save(new File(Constants.INPUT_RECORDING));
 				}
-				else
+				catch (IOException e)
 				{
-					level.riceBall.dustParticles.allowCompletion();
+					throw new RuntimeException("Could not save " + Constants.INPUT_RECORDING, e);
 				}
-				if (Gdx.input.isKeyJustPressed(Keys.SPACE) && !level.riceBall.isJumping)
+			}
+		}, new IoService.Callback()
+		{
+			@Override
+			public void done(boolean succeeded)
+			{
+				recordingsSaving--;
+				if (succeeded)
+					Gdx.app.debug(TAG, "saved recording to " + Constants.INPUT_RECORDING);
+			}
+		});
+	}
+	
+	/**
+	 * Restarts the level the way the recording started and plays its input back
+	 * tick by tick, at the tick rate it was recorded at. The keyboard is ignored
+	 * until the recording ends.
+	 * @param recording		The recording.
+	 */
+	public void startReplay(InputRecording recording)
+	{
+		stopRecording();
+		setTickRate(recording.getTickRate());
+		levelFile = recording.getLevel();
+		restart(recording.getSeed());
+		replay = recording;
+		replayTick = 0;
+		Gdx.app.debug(TAG, "replaying " + recording.size() + " ticks, seed " + recording.getSeed());
+	}
+	
+	/**
+	 * @return	If recorded input is being played back.
+	 */
+	public boolean isReplaying()
+	{
+		return replay != null;
+	}
+	
+	/**
+	 * @return	Score, lives and player position, to compare the end of a replay with the end of its recording.
+	 */
+	public String describeState()
+	{
+		return "score " + score + ", lives " + lives + ", riceball at " + level.riceBall.body.getPosition();
+	}
+	
+	/**
+	 * Gets the input for the next tick: from the replay if one is playing,
+	 * otherwise from the keys read since the last tick, recording it if needed.
+	 * @return	The input bits, see InputRecording.
+	 */
+	private int nextInput()
+	{
+		if (replay != null && replayTick >= replay.size())
+		{
+			replay = null;
+			Gdx.app.debug(TAG, "replay finished after " + replayTick + " ticks, " + describeState());
+		}
+		int input;
+		if (replay != null)
+		{
+			input = replay.get(replayTick++);
+		}
+		else
+		{
+			input = InputRecording.pack(moveDirection, jumpRequested, fireRequested);
+			if (recording != null)
+				recording.add(input);
+		}
+		jumpRequested = false;
+		fireRequested = false;
+		return input;
+	}
+	
+	/**
+	 * Forgets any input that hasn't been applied yet.
+	 */
+	private void clearInput()
+	{
+		moveDirection = 0;
+		jumpRequested = false;
+		fireRequested = false;
+	}
+	
+	/**
+	 * Handles movement and jumping of the riceball, once per physics tick.
+	 * Reads where the riceball's body is, not where it was last drawn, so the tick
+	 * doesn't depend on how far into a frame it ran.
+	 * @param input		The input bits of the tick, see InputRecording.
+	 */
+	private void applyInput(int input)
+	{
+		if (level.riceBall.health > 0)
+		{
+			Vector2 at = level.riceBall.body.getPosition();
+			// Player Movement
+			if ((input & InputRecording.LEFT) != 0)
+			{
+				level.riceBall.body.applyForceToCenter(-50, 0, true);
+				level.riceBall.viewDirection = RiceBall.VIEW_DIRECTION.LEFT;
+				if (!level.riceBall.isJumping)
 				{
-					AudioManager.instance.play(Assets.instance.sounds.jump);
-					level.riceBall.isJumping = true;
-					level.riceBall.body.applyForceToCenter(0, 350, true);
-					level.riceBall.dustParticles.allowCompletion();
+					level.riceBall.dustParticles.setPosition(at.x + level.riceBall.dimension.x / 2, at.y);
+					level.riceBall.dustParticles.start();
 				}
-				if (Gdx.input.isKeyJustPressed(Keys.CONTROL_LEFT) && level.riceBall.bullets > 0)
+			}
+			else if ((input & InputRecording.RIGHT) != 0)
+			{
+				level.riceBall.body.applyForceToCenter(50, 0, true);
+				level.riceBall.viewDirection = RiceBall.VIEW_DIRECTION.RIGHT;
+				if (!level.riceBall.isJumping)
 				{
-					AudioManager.instance.play(Assets.instance.sounds.gunshot);
-					level.riceBall.bullets--;
-			//		level.riceBall.gunfire.setPosition(level.riceBall.position.x + 150, level.riceBall.position.y + 50);
-			//		level.riceBall.gunfire.start();
-			//		level.riceBall.gunfire.allowCompletion();
-					fireBullet();
+					level.riceBall.dustParticles.setPosition(at.x + level.riceBall.dimension.x / 2, at.y);
+					level.riceBall.dustParticles.start();
 				}
 			}
-			if (level.riceBall.health <= 0)
+			else
+			{
+				level.riceBall.dustParticles.allowCompletion();
+			}
+			if ((input & InputRecording.JUMP) != 0 && !level.riceBall.isJumping)
 			{
-				AudioManager.instance.play(Assets.instance.sounds.liveLost);
-				lives--;
-				initLevel();
+				AudioManager.instance.play(Assets.instance.sounds.jump);
+				level.riceBall.isJumping = true;
+				level.riceBall.body.applyForceToCenter(0, 350, true);
+				level.riceBall.dustParticles.allowCompletion();
+			}
+			if ((input & InputRecording.FIRE) != 0 && level.riceBall.bullets > 0)
+			{
+				AudioManager.instance.play(Assets.instance.sounds.gunshot);
+				level.riceBall.bullets--;
+		//		level.riceBall.gunfire.setPosition(level.riceBall.position.x + 150, level.riceBall.position.y + 50);
+		//		level.riceBall.gunfire.start();
+		//		level.riceBall.gunfire.allowCompletion();
+				fireBullet();
 			}
 		}
 	}
 	
 	/**
-	 * Get a bullet and place it into the world.
+	 * Get a bullet and place it into the world, next to the riceball's body.
+	 * Bullets keep their body between shots, firing only moves it and puts it back into the simulation.
 	 */
 	public void fireBullet()
 	{
-		boolean bulletNotFired = true;
-		for (int i = 0; i < level.bullets.size & bulletNotFired; i++)
+		Vector2 at = level.riceBall.body.getPosition();
+		for (int i = 0; i < level.bullets.size; i++)
 		{
 			Bullet bullet = level.bullets.get(i);
-			if (!bullet.onScreen)
-			{
-				bulletNotFired = false;
-				if (level.riceBall.viewDirection.equals(RiceBall.VIEW_DIRECTION.RIGHT))
-					bullet.position.x = level.riceBall.position.x + 1.7f;
-				else if (level.riceBall.viewDirection.equals(RiceBall.VIEW_DIRECTION.LEFT))
-				{
-					bullet.position.x = level.riceBall.position.x - .7f;
-					bullet.reversed = true;
-				}
-				
-				bullet.position.y = level.riceBall.position.y + .3f;
-				bullet.onScreen = true;
-				
-				BodyDef bodyDef = new BodyDef();
-				bodyDef.type = BodyType.DynamicBody;
-				bodyDef.position.set(bullet.position);
-				Body body = b2world.createBody(bodyDef);
-				bullet.body = body;
-				
-				if (level.riceBall.viewDirection.equals(RiceBall.VIEW_DIRECTION.RIGHT))
-					body.setLinearVelocity(20, 0);
-				if (level.riceBall.viewDirection.equals(RiceBall.VIEW_DIRECTION.LEFT))
-					body.setLinearVelocity(-20, 0);
-				
-				PolygonShape polygonShape = new PolygonShape();
-				Vector2 origin = new Vector2(bullet.origin.x, bullet.origin.y);
-				polygonShape.setAsBox(bullet.dimension.x /2.0f, bullet.dimension.y / 2.0f, origin, 0);
-				FixtureDef fixtureDef = new FixtureDef();
-				fixtureDef.shape = polygonShape;
-				fixtureDef.density = 1;
-				fixtureDef.restitution = 0;
-				fixtureDef.friction = 1;
-				body.createFixture(fixtureDef);
-				body.setUserData(bullet);
-				polygonShape.dispose();
-			}
+			if (bullet.onScreen)
+				continue;
+			
+			bullet.reversed = level.riceBall.viewDirection == RiceBall.VIEW_DIRECTION.LEFT;
+			if (bullet.reversed)
+				bullet.position.x = at.x - .7f;
+			else
+				bullet.position.x = at.x + 1.7f;
+			bullet.position.y = at.y + .3f;
+			bullet.rotation = 0;
+			// don't draw the bullet sliding in from where it was last
+			bullet.previousPosition.set(bullet.position);
+			bullet.previousRotation = 0;
+			bullet.onScreen = true;
+			
+			Body body = bullet.body;
+			body.setTransform(bullet.position, 0);
+			body.setLinearVelocity(bullet.reversed ? -20 : 20, 0);
+			body.setAngularVelocity(0);
+			body.setActive(true);
+			body.setAwake(true);
+			return;
 		}
 	}
 	
+	/**
+	 * Sets how many physics ticks run per second of game time.
+	 * @param ticksPerSecond	The tick rate.
+	 */
+	public void setTickRate(int ticksPerSecond)
+	{
+		timeStep = 1.0f / ticksPerSecond;
+	}
+	
+	/**
+	 * Sets how many physics ticks may run in one frame. Time beyond that is dropped,
+	 * so a long frame slows the game down instead of stalling it further.
+	 * @param maxSteps	The most ticks per frame.
+	 */
+	public void setMaxStepsPerFrame(int maxSteps)
+	{
+		maxStepsPerFrame = maxSteps;
+	}
+	
 	/**
 	 * Applies updates to the game world many times a second.
+	 * Physics runs in fixed ticks, objects are drawn between the last two ticks.
 	 * @param deltaTime		How much time has passed since last frame.
 	 */
 	public void update(float deltaTime)
 	{
 		if (!gameEnded)
 		{
+			FrameProfiler profiler = FrameProfiler.instance;
+			commands.resetCounters();
 			if (lives == 0 || goalReached)
 			{
+				clearInput();
 				timeLeftGameOverDelay -= deltaTime;
 				if (timeLeftGameOverDelay < 0)
 				{
@@ -455,24 +615,36 @@ public class WorldController extends InputAdapter implements Disposable
 			}
 			else
 			{
+				profiler.begin(Phase.INPUT);
 				handleInputGame(deltaTime);
+				profiler.end(Phase.INPUT);
 			}
-			level.update(deltaTime);
-			b2world.step(deltaTime, 8, 3);
-			while (!removeFlagged.isEmpty())
+			accumulator += deltaTime;
+			int steps = 0;
+			while (accumulator >= timeStep && steps < maxStepsPerFrame)
 			{
-				b2world.destroyBody(removeFlagged.get(0));
-				removeFlagged.remove(0);
+				profiler.begin(Phase.INPUT);
+				applyInput(nextInput());
+				profiler.end(Phase.INPUT);
+				level.savePhysicsState();
+				profiler.begin(Phase.LEVEL_UPDATE);
+				level.update(timeStep);
+				profiler.end(Phase.LEVEL_UPDATE);
+				// includes the contact callbacks, which are also timed on their own
+				profiler.begin(Phase.PHYSICS_STEP);
+				b2world.step(timeStep, 8, 3);
+				profiler.end(Phase.PHYSICS_STEP);
+				profiler.begin(Phase.CONTACTS);
+				commands.apply(b2world);
+				profiler.end(Phase.CONTACTS);
+				checkLives();
+				accumulator -= timeStep;
+				steps++;
 			}
+			if (accumulator >= timeStep)
+				accumulator %= timeStep;
+			level.interpolate(accumulator / timeStep);
 			cameraHelper.update(deltaTime);
-			if (lives > 0 && inWater)
-			{
-				lives--;
-				if (lives == 0)
-					timeLeftGameOverDelay = Constants.TIME_DELAY_GAME_OVER;
-				else
-					initLevel();
-			}
 			level.background.updateScrollPosition(cameraHelper.getPosition());
 		}
 	}
@@ -532,6 +704,7 @@ public class WorldController extends InputAdapter implements Disposable
 	 */
 	private void gameOver()
 	{
+		stopRecording();
 		AudioManager.instance.stopMusic();
 		AudioManager.instance.play(Assets.instance.music.menuMusic);
 		game.setScreen(new MenuScreen(game, true, highscore));
@@ -4,9 +4,15 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Disposable;
 import com.packetpub.libgdx.rutter.util.Constants;
+import com.packetpub.libgdx.rutter.util.FrameProfiler;
+import com.packetpub.libgdx.rutter.util.FrameProfiler.Phase;
+import com.packetpub.libgdx.rutter.util.GamePreferences;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.utils.StringBuilder;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 
 /**
@@ -16,10 +22,28 @@ import com.badlogic.gdx.graphics.g2d.Sprite;
  */
 public class WorldRenderer implements Disposable
 {
+	private static final Phase[] PHASES = Phase.values();
+	
 	private OrthographicCamera camera;
 	private OrthographicCamera cameraGUI;
 	private SpriteBatch batch;
+	// background and dirt, drawn before the batch
+	private StaticLayerCache staticLayers;
 	private WorldController worldController;
+	// area of the world the camera shows this frame
+	private final Rectangle viewBounds = new Rectangle();
+	
+	// HUD text is only laid out again when the value it shows changes
+	private final StringBuilder scoreText = new StringBuilder(32);
+	private final GlyphLayout scoreLayout = new GlyphLayout();
+	private int shownScore = -1;
+	private int shownHighscore = -1;
+	private final StringBuilder fpsText = new StringBuilder(16);
+	private final GlyphLayout fpsLayout = new GlyphLayout();
+	private int shownFps = -1;
+	private final StringBuilder profileText = new StringBuilder(256);
+	private final GlyphLayout profileLayout = new GlyphLayout();
+	private int shownRevision = -1;
 
 	/**
 	 * Constructor for WorldRenderer, gets worldController then calls init
@@ -38,6 +62,7 @@ public class WorldRenderer implements Disposable
 	private void init()
 	{
 		batch = new SpriteBatch();
+		staticLayers = new StaticLayerCache();
 
 		// set up camera
 		camera = new OrthographicCamera(Constants.VIEWPORT_WIDTH, Constants.VIEWPORT_HEIGHT);
@@ -56,8 +81,13 @@ public class WorldRenderer implements Disposable
 	 */
 	public void render()
 	{
+		FrameProfiler profiler = FrameProfiler.instance;
+		profiler.begin(Phase.WORLD_RENDER);
 		renderWorld(batch);
+		profiler.end(Phase.WORLD_RENDER);
+		profiler.begin(Phase.GUI_RENDER);
 		renderGui(batch);
+		profiler.end(Phase.GUI_RENDER);
 	}
 	
 	/**
@@ -85,9 +115,13 @@ public class WorldRenderer implements Disposable
 	private void renderWorld(SpriteBatch batch)
 	{
 		worldController.cameraHelper.applyTo(camera);
+		float viewWidth = camera.viewportWidth * camera.zoom;
+		float viewHeight = camera.viewportHeight * camera.zoom;
+		viewBounds.set(camera.position.x - viewWidth / 2, camera.position.y - viewHeight / 2, viewWidth, viewHeight);
+		staticLayers.render(camera, worldController.level, viewBounds);
 		batch.setProjectionMatrix(camera.combined);
 		batch.begin();
-		worldController.level.render(batch);
+		worldController.level.render(batch, viewBounds);
 		batch.end();
 	}
 	
@@ -101,7 +135,15 @@ public class WorldRenderer implements Disposable
 		float y = - 15;
 		
 		batch.draw(Assets.instance.ricegrain.ricegrain, x, y, 50, 50, 100, 100, 0.35f, -0.35f, 0);
-		Assets.instance.fonts.defaultBig.draw(batch, "" + worldController.score + "   (" + worldController.highscore + ")", x + 75, y + 37);
+		if (worldController.score != shownScore || worldController.highscore != shownHighscore)
+		{
+			shownScore = worldController.score;
+			shownHighscore = worldController.highscore;
+			scoreText.setLength(0);
+			scoreText.append(shownScore).append("   (").append(shownHighscore).append(')');
+			scoreLayout.setText(Assets.instance.fonts.defaultBig, scoreText);
+		}
+		Assets.instance.fonts.defaultBig.draw(batch, scoreLayout, x + 75, y + 37);
 	}
 	
 	/**
@@ -150,23 +192,78 @@ public class WorldRenderer implements Disposable
 		float y = cameraGUI.viewportHeight - 15;
 		int fps = Gdx.graphics.getFramesPerSecond();
 		BitmapFont fpsFont = Assets.instance.fonts.defaultNormal;
-		if(fps >= 45)
-		{
-			//45 or more FPS show up in green
-			fpsFont.setColor(0, 1, 0, 1);
-		}
-		else if(fps >= 30)
+		if (fps != shownFps)
 		{
-			//30 or more FPS show up in yellow
-			fpsFont.setColor(1, 1, 0, 1);
+			shownFps = fps;
+			if(fps >= 45)
+			{
+				//45 or more FPS show up in green
+				fpsFont.setColor(0, 1, 0, 1);
+			}
+			else if(fps >= 30)
+			{
+				//30 or more FPS show up in yellow
+				fpsFont.setColor(1, 1, 0, 1);
+			}
+			else
+			{
+				//less than 30 FPS show up in red
+				fpsFont.setColor(1, 0, 0, 1);
+			}
+			fpsText.setLength(0);
+			fpsText.append("FPS: ").append(fps);
+			//the layout keeps the color it was built with
+			fpsLayout.setText(fpsFont, fpsText);
+			fpsFont.setColor(1, 1, 1, 1); //white
 		}
-		else
+		fpsFont.draw(batch, fpsLayout, x, y);
+	}
+	
+	/**
+	 * Responsible for rendering the frame time percentiles and the time spent in each
+	 * phase of a frame, right above the fps counter
+	 * @param batch		The spritebatch we are using to draw.
+	 */
+	private void renderGuiProfiler(SpriteBatch batch)
+	{
+		FrameProfiler profiler = FrameProfiler.instance;
+		BitmapFont font = Assets.instance.fonts.defaultNormal;
+		if (profiler.getRevision() != shownRevision)
 		{
-			//less than 30 FPS show up in red
-			fpsFont.setColor(1, 0, 0, 1);
+			shownRevision = profiler.getRevision();
+			profileText.setLength(0);
+			profileText.append("p50 ");
+			appendMillis(profileText, profiler.getP50());
+			profileText.append("  p95 ");
+			appendMillis(profileText, profiler.getP95());
+			profileText.append("  p99 ");
+			appendMillis(profileText, profiler.getP99());
+			profileText.append(" ms");
+			for (Phase phase : PHASES)
+			{
+				profileText.append('\n').append(phase.getLabel()).append(' ');
+				appendMillis(profileText, profiler.getAverage(phase));
+				profileText.append(" ms");
+			}
+			profileLayout.setText(font, profileText);
 		}
-		fpsFont.draw(batch, "FPS: " + fps, x, y);
-		fpsFont.setColor(1, 1, 1, 1); //white
+		float x = cameraGUI.viewportWidth - profileLayout.width - 10;
+		float y = cameraGUI.viewportHeight - 25 - Math.abs(profileLayout.height);
+		font.draw(batch, profileLayout, x, y);
+	}
+	
+	/**
+	 * Writes a time as milliseconds with two decimals, without creating garbage.
+	 * @param text		Where the time is written.
+	 * @param nanos		The time in nanoseconds.
+	 */
+	private static void appendMillis(StringBuilder text, long nanos)
+	{
+		long hundredths = (nanos + 5000) / 10000;
+		text.append(hundredths / 100).append('.');
+		if (hundredths % 100 < 10)
+			text.append('0');
+		text.append(hundredths % 100);
 	}
 	
 	/**
@@ -184,8 +281,12 @@ public class WorldRenderer implements Disposable
 		renderGuiExtraLive(batch);
 		//draw amount of bullets left
 		renderGuiBullets(batch);
-		//draw FPS text (anchored to bottom right edge)
-		renderGuiFpsCounter(batch);
+		//draw FPS text and frame timings (anchored to bottom right edge)
+		if (GamePreferences.instance.showFpsCounter)
+		{
+			renderGuiFpsCounter(batch);
+			renderGuiProfiler(batch);
+		}
 		batch.end();
 	}
 
@@ -196,5 +297,6 @@ public class WorldRenderer implements Disposable
 	public void dispose()
 	{
 		batch.dispose();
+		staticLayers.dispose();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.packetpub.libgdx.rutter.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+
+/**
+ * @author Kevin Rutter
+ * Marks an entity that moves on its own (bugs).
+ */
+public class AiComponent implements Component
+{
+	public static final ComponentMapper<AiComponent> mapper = ComponentMapper.getFor(AiComponent.class);
+
+	// game time since the entity last thought, in seconds
+	public float sinceThink;
+}
@@ -0,0 +1,56 @@
+package com.packetpub.libgdx.rutter.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+
+/**
+ * @author Kevin Rutter
+ * Describes the Box2D body of an entity: a single box the size of the object.
+ * The body itself is kept on the game object, where the contact listener finds it.
+ */
+public class BodyComponent implements Component
+{
+	public static final ComponentMapper<BodyComponent> mapper = ComponentMapper.getFor(BodyComponent.class);
+
+	public BodyType type = BodyType.StaticBody;
+	public boolean sensor;
+	public boolean fixedRotation;
+	// if the body starts out in the simulation
+	public boolean active = true;
+	public float density;
+	public float restitution;
+	public float friction = 0.2f;
+	// center of the box relative to the body's position
+	public final Vector2 center = new Vector2();
+
+	/**
+	 * Makes a sensor, which reports contacts without pushing anything.
+	 * @param type	Static for things that never move, kinematic for things moved by code.
+	 * @return		The component, for chaining.
+	 */
+	public BodyComponent sensor(BodyType type)
+	{
+		this.type = type;
+		sensor = true;
+		return this;
+	}
+
+	/**
+	 * Makes a dynamic body that collides.
+	 * @param density		Density of the box.
+	 * @param restitution	How bouncy the box is.
+	 * @param friction		Friction of the box.
+	 * @return				The component, for chaining.
+	 */
+	public BodyComponent solid(float density, float restitution, float friction)
+	{
+		type = BodyType.DynamicBody;
+		sensor = false;
+		this.density = density;
+		this.restitution = restitution;
+		this.friction = friction;
+		return this;
+	}
+}
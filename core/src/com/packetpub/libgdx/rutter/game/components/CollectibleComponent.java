@@ -0,0 +1,13 @@
+package com.packetpub.libgdx.rutter.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+
+/**
+ * @author Kevin Rutter
+ * Marks an entity the player picks up (guns, nori, rice grains).
+ */
+public class CollectibleComponent implements Component
+{
+	public static final ComponentMapper<CollectibleComponent> mapper = ComponentMapper.getFor(CollectibleComponent.class);
+}
@@ -0,0 +1,15 @@
+package com.packetpub.libgdx.rutter.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+
+/**
+ * @author Kevin Rutter
+ * Marks an entity that is done until the level is reset: a pickup that was
+ * collected or a bug whose death animation has played. The systems' families
+ * leave these out, so they drop out of the update and draw loops.
+ */
+public class RetiredComponent implements Component
+{
+	public static final ComponentMapper<RetiredComponent> mapper = ComponentMapper.getFor(RetiredComponent.class);
+}
@@ -0,0 +1,40 @@
+package com.packetpub.libgdx.rutter.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+
+/**
+ * @author Kevin Rutter
+ * Marks an entity that is drawn, and in which order. Lower layers are drawn first.
+ */
+public class SpriteComponent implements Component
+{
+	public static final ComponentMapper<SpriteComponent> mapper = ComponentMapper.getFor(SpriteComponent.class);
+
+	// draw order of the level, back to front
+	public static final int LAYER_BACKGROUND = 0;
+	public static final int LAYER_DIRT = 1;
+	public static final int LAYER_BUG = 2;
+	public static final int LAYER_GUN = 3;
+	public static final int LAYER_NORI = 4;
+	public static final int LAYER_RICE_GRAIN = 5;
+	public static final int LAYER_BULLET = 6;
+	public static final int LAYER_PLAYER = 7;
+	public static final int LAYER_WATER = 8;
+	public static final int LAYER_GOAL = 9;
+
+	public final int layer;
+	// objects that are always on screen skip culling
+	public final boolean alwaysVisible;
+
+	/**
+	 * Constructor for SpriteComponent.
+	 * @param layer			The draw layer.
+	 * @param alwaysVisible	If the object is drawn without checking it is on screen.
+	 */
+	public SpriteComponent(int layer, boolean alwaysVisible)
+	{
+		this.layer = layer;
+		this.alwaysVisible = alwaysVisible;
+	}
+}
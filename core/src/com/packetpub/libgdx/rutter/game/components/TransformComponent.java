@@ -0,0 +1,33 @@
+package com.packetpub.libgdx.rutter.game.components;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.gdx.math.Vector2;
+import com.packetpub.libgdx.rutter.game.objects.AbstractGameObject;
+
+/**
+ * @author Kevin Rutter
+ * Where an entity is and how big it is. The vectors are the game object's own,
+ * so systems and the object always agree on the position.
+ */
+public class TransformComponent implements Component
+{
+	public static final ComponentMapper<TransformComponent> mapper = ComponentMapper.getFor(TransformComponent.class);
+
+	public final AbstractGameObject object;
+	public final Vector2 position;
+	public final Vector2 dimension;
+	public final Vector2 origin;
+
+	/**
+	 * Constructor for TransformComponent.
+	 * @param object	The game object the entity stands for.
+	 */
+	public TransformComponent(AbstractGameObject object)
+	{
+		this.object = object;
+		position = object.position;
+		dimension = object.dimension;
+		origin = object.origin;
+	}
+}
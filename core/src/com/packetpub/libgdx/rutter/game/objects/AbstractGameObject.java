@@ -4,6 +4,7 @@ import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 
@@ -19,13 +20,19 @@ public abstract class AbstractGameObject
 	public Vector2 origin;
 	public Vector2 scale;
 	public float rotation;
+	public Vector2 spawnPosition;
+	
+	// body state before the last physics tick, for drawing between ticks
+	public Vector2 previousPosition;
+	public float previousRotation;
+	public final EntityKind kind;
 		
-	private final float FLOAT_CYCLE_TIME = .5f;
-	private final float FLOAT_AMPLITUDE = 0.5f;
+	// seconds for one bob up and down, and how far it goes each way
+	private static final float FLOAT_PERIOD = 1f;
+	private static final float FLOAT_AMPLITUDE = 0.1f;
 	
-	private float floatCycleTimeLeft;
-	private boolean floatingDownwards;
-	private Vector2 floatTargetPosition;
+	// where in the bobbing the object starts, so items don't all bob in step
+	private float floatPhase;
 	
 	public Body body;
 	
@@ -33,19 +40,29 @@ public abstract class AbstractGameObject
 	public Animation<TextureRegion> animation;
 	
 	/**
-	 * Builds the game object
+	 * Builds a game object that doesn't need a kind (decorations)
 	 */
 	public AbstractGameObject ()
 	{
+		this(EntityKind.NONE);
+	}
+	
+	/**
+	 * Builds the game object
+	 * @param kind	What kind of object this is, used to tell objects apart in contacts
+	 */
+	public AbstractGameObject (EntityKind kind)
+	{
+		this.kind = kind;
 		position = new Vector2();
 		dimension = new Vector2(1,1);
 		origin = new Vector2();
 		scale = new Vector2(1,1);
 		rotation = 0;
+		spawnPosition = new Vector2();
+		previousPosition = new Vector2();
 		
-		floatingDownwards = false;
-		floatCycleTimeLeft = MathUtils.random(0, FLOAT_CYCLE_TIME / 2);
-		floatTargetPosition = null;
+		floatPhase = MathUtils.random(0, FLOAT_PERIOD / 2);
 	}
 	
 	/**
@@ -58,6 +75,35 @@ public abstract class AbstractGameObject
 		stateTime = 0;
 	}
 	
+	/**
+	 * Remembers the current position as the place the object goes back to when reset.
+	 */
+	public void setSpawnPoint()
+	{
+		spawnPosition.set(position);
+	}
+	
+	/**
+	 * Puts the object back the way it was when the level was loaded.
+	 * The body is moved and woken up in place instead of being recreated.
+	 */
+	public void reset()
+	{
+		position.set(spawnPosition);
+		rotation = 0;
+		previousPosition.set(spawnPosition);
+		previousRotation = 0;
+		stateTime = 0;
+		if (body != null)
+		{
+			body.setTransform(spawnPosition, 0);
+			body.setLinearVelocity(0, 0);
+			body.setAngularVelocity(0);
+			body.setActive(true);
+			body.setAwake(true);
+		}
+	}
+	
 	/**
 	 * Updates the object based on the time since last frame
 	 * @param deltaTime		Time since last frame
@@ -72,6 +118,64 @@ public abstract class AbstractGameObject
 		}
 	}
 	
+	/**
+	 * Remembers where the body is before the next physics tick.
+	 */
+	public void savePhysicsState()
+	{
+		if (body != null)
+		{
+			previousPosition.set(body.getPosition());
+			previousRotation = body.getAngle() * MathUtils.radiansToDegrees;
+		}
+	}
+	
+	/**
+	 * Places the object between where its body was before and after the last physics tick.
+	 * @param alpha		How far into the next tick the frame is, from 0 to 1.
+	 */
+	public void interpolate(float alpha)
+	{
+		if (body != null)
+		{
+			Vector2 current = body.getPosition();
+			position.x = previousPosition.x + (current.x - previousPosition.x) * alpha;
+			position.y = previousPosition.y + (current.y - previousPosition.y) * alpha;
+			float currentRotation = body.getAngle() * MathUtils.radiansToDegrees;
+			rotation = previousRotation + (currentRotation - previousRotation) * alpha;
+		}
+	}
+	
+	/**
+	 * Gets the area the object covers when drawn, used to skip objects that are off screen.
+	 * @param out	Receives the bounds in world units.
+	 * @return		The out rectangle.
+	 */
+	public Rectangle getBounds(Rectangle out)
+	{
+		return out.set(position.x, position.y, dimension.x * Math.abs(scale.x), dimension.y * Math.abs(scale.y));
+	}
+	
+	/**
+	 * If the object is done until the level is reset, e.g. collected, and no longer
+	 * needs to be updated or drawn.
+	 * @return	False, objects that can finish say when they have.
+	 */
+	public boolean isFinished()
+	{
+		return false;
+	}
+	
+	/**
+	 * If the object is on its way to being finished, e.g. playing its death animation.
+	 * It keeps being updated every tick however far it is from the player, so it gets there.
+	 * @return	False, objects that take time to finish say when they are.
+	 */
+	public boolean isFinishing()
+	{
+		return false;
+	}
+	
 	/**
 	 * Gets the appearance of the game object
 	 * @param batch is the sprite batch it uses
@@ -79,25 +183,13 @@ public abstract class AbstractGameObject
 	public abstract void render (SpriteBatch batch);
 	
 	/**
-	 * Handles the lerp floating of certain items.
-	 * @param deltaTime	Time since last frame.
+	 * How far above its position a floating item is drawn. The bobbing is only for
+	 * looks, so it is worked out from the state time when drawing and the body
+	 * stays put.
+	 * @return	Offset in meters, between -FLOAT_AMPLITUDE and FLOAT_AMPLITUDE.
 	 */
-	public void lerpUpdate(float deltaTime)
+	public float getFloatOffset()
 	{
-		floatCycleTimeLeft -= deltaTime;
-		if (floatTargetPosition == null)
-			floatTargetPosition = new Vector2(position);
-
-		if (floatCycleTimeLeft <= 0)
-		{
-			floatCycleTimeLeft = FLOAT_CYCLE_TIME;
-			floatingDownwards = !floatingDownwards;
-			body.setLinearVelocity(0, FLOAT_AMPLITUDE * (floatingDownwards ? -1 : 1));
-		}
-		else
-		{
-			body.setLinearVelocity(body.getLinearVelocity().scl(0.98f));
-		}
-		position.lerp(floatTargetPosition, deltaTime);
+		return FLOAT_AMPLITUDE * MathUtils.sin((stateTime + floatPhase) * MathUtils.PI2 / FLOAT_PERIOD);
 	}
 }
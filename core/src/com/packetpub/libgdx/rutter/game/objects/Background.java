@@ -1,8 +1,10 @@
 package com.packetpub.libgdx.rutter.game.objects;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.packetpub.libgdx.rutter.game.Assets;
 
@@ -12,10 +14,35 @@ import com.packetpub.libgdx.rutter.game.Assets;
  */
 public class Background extends AbstractGameObject
 {
-	private TextureRegion regGrass;
-	private TextureRegion regFence;
+	/**
+	 * One row of repeating tiles that scrolls slower than the camera.
+	 */
+	private static class Layer
+	{
+		final TextureRegion region;
+		// offset in tiles
+		final float offsetX;
+		final float offsetY;
+		// gray the tiles are tinted with
+		final float tint;
+		// how much of the camera's movement the layer follows, 1 means it stands still on screen
+		final float parallaxSpeedX;
+
+		Layer(TextureRegion region, float offsetX, float offsetY, float tint, float parallaxSpeedX)
+		{
+			this.region = region;
+			this.offsetX = offsetX;
+			this.offsetY = offsetY;
+			this.tint = tint;
+			this.parallaxSpeedX = parallaxSpeedX;
+		}
+	}
+
+	private Layer[] layers;
 
 	private int length;
+	// area the camera shows, by default the whole level
+	private final Rectangle view = new Rectangle(-Float.MAX_VALUE / 2, 0, Float.MAX_VALUE, 0);
 
 	/**
 	 * Constructor, gets length then calls init method
@@ -35,8 +62,15 @@ public class Background extends AbstractGameObject
 	{
 		dimension.set(10, 2);
 
-		regGrass = Assets.instance.levelDecoration.grass;
-		regFence = Assets.instance.levelDecoration.fence;
+		TextureRegion regGrass = Assets.instance.levelDecoration.grass;
+		TextureRegion regFence = Assets.instance.levelDecoration.fence;
+		layers = new Layer[] {
+				// fences in the farthest background layer
+				new Layer(regFence, 0.5f, .5f, 1f, .8f),
+				// grass in the second background layer
+				new Layer(regGrass, 0.25f, .25f, 0.5f, .5f),
+				// grass in the closest background layer
+				new Layer(regGrass, 0.0f, -.15f, 0.9f, .3f) };
 
 		// shift background and extend length
 		origin.x = -dimension.x * 2;
@@ -44,89 +78,157 @@ public class Background extends AbstractGameObject
 	}
 
 	/**
-	 * Draws the grass in the background
+	 * Draws the tiles of one background layer that are in view.
 	 * 
 	 * @param batch     the spritebatch object
-	 * @param offsetX   x offset for drawing the background
-	 * @param offsetY   y offset for drawing the background
-	 * @param tintColor desired tint to background
+	 * @param layer     index of the layer, 0 is the farthest
 	 */
-	private void drawGrass(SpriteBatch batch, float offsetX, float offsetY, float tintColor, float parallaxSpeedX)
+	private void drawLayer(SpriteBatch batch, int layer)
 	{
-		TextureRegion reg = null;
+		TextureRegion reg = layers[layer].region;
+		float tintColor = layers[layer].tint;
 		batch.setColor(tintColor, tintColor, tintColor, 1);
-		float xRel = dimension.x * offsetX;
-		float yRel = dimension.y * offsetY;
-
-		// background spans the whole level
-		int backgroundLength = 0;
-		backgroundLength += MathUtils.ceil(length / (2 * dimension.x) * (1 - parallaxSpeedX));
-		backgroundLength += MathUtils.ceil(0.6f + offsetX);
-
-		for (int i = 0; i < backgroundLength; i++)
+		float scrollX = getScrollX(layer);
+		int first = getFirstVisibleTile(layer, view);
+		int end = first + getVisibleTileCount(layer, view, first);
+		for (int i = first; i < end; i++)
 		{
-			// grass
-			reg = regGrass;
-			batch.draw(reg.getTexture(), origin.x + xRel + position.x * parallaxSpeedX, origin.y + yRel + position.y,
+			batch.draw(reg.getTexture(), getTileX(layer, i) + scrollX, getTileY(layer),
 					origin.x, origin.y, dimension.x, dimension.y, scale.x, scale.y*2, rotation, reg.getRegionX(),
 					reg.getRegionY(), reg.getRegionWidth(), reg.getRegionHeight(), false, false);
-			xRel += dimension.x;
 		}
 
 		// reset color to white
 		batch.setColor(1, 1, 1, 1);
 	}
-	
+
 	/**
-	 * Draws the fence in the background
+	 * Adds the first tiles of one background layer to a sprite cache, as they are drawn
+	 * when the camera is at x = 0. All tiles of a layer look the same, so drawing the
+	 * cache moved by getScrollX plus a whole number of tiles shows any stretch of the layer.
 	 * 
-	 * @param batch     the spritebatch object
-	 * @param offsetX   x offset for drawing the background
-	 * @param offsetY   y offset for drawing the background
-	 * @param tintColor desired tint to background
+	 * @param cache     the sprite cache, between beginCache and endCache
+	 * @param layer     index of the layer, 0 is the farthest
+	 * @param tiles     number of tiles, enough to cover the view
 	 */
-	private void drawFence(SpriteBatch batch, float offsetX, float offsetY, float tintColor, float parallaxSpeedX)
+	public void cacheLayer(SpriteCache cache, int layer, int tiles)
 	{
-		TextureRegion reg = null;
-		batch.setColor(tintColor, tintColor, tintColor, 1);
-		float xRel = dimension.x * offsetX;
-		float yRel = dimension.y * offsetY;
-
-		// background spans the whole level
-		int backgroundLength = 0;
-		backgroundLength += MathUtils.ceil(length / (2 * dimension.x) * (1 - parallaxSpeedX));
-		backgroundLength += MathUtils.ceil(0.6f + offsetX);
-
-		for (int i = 0; i < backgroundLength; i++)
+		TextureRegion reg = layers[layer].region;
+		float tintColor = layers[layer].tint;
+		cache.setColor(tintColor, tintColor, tintColor, 1);
+		for (int i = 0; i < tiles; i++)
 		{
-			// fence
-			reg = regFence;
-			batch.draw(reg.getTexture(), origin.x + xRel + position.x * parallaxSpeedX, origin.y + yRel + position.y,
+			cache.add(reg.getTexture(), getTileX(layer, i), getTileY(layer),
 					origin.x, origin.y, dimension.x, dimension.y, scale.x, scale.y*2, rotation, reg.getRegionX(),
 					reg.getRegionY(), reg.getRegionWidth(), reg.getRegionHeight(), false, false);
-			xRel += dimension.x;
 		}
+		cache.setColor(1, 1, 1, 1);
+	}
 
-		// reset color to white
-		batch.setColor(1, 1, 1, 1);
+	/**
+	 * @return	Number of background layers.
+	 */
+	public int getLayerCount()
+	{
+		return layers.length;
+	}
+
+	/**
+	 * @param layer		index of the layer, 0 is the farthest
+	 * @return			How far the layer is moved to the right for the current camera position.
+	 */
+	public float getScrollX(int layer)
+	{
+		return position.x * layers[layer].parallaxSpeedX;
+	}
+
+	/**
+	 * @return	Number of tiles it takes for a layer to span the whole level.
+	 */
+	public int getTileCount(int layer)
+	{
+		int backgroundLength = 0;
+		backgroundLength += MathUtils.ceil(length / (2 * dimension.x) * (1 - layers[layer].parallaxSpeedX));
+		backgroundLength += MathUtils.ceil(0.6f + layers[layer].offsetX);
+		return backgroundLength;
+	}
+
+	/**
+	 * @param layer		index of the layer, 0 is the farthest
+	 * @param view		the area the camera shows, in world units
+	 * @return			The leftmost tile of the layer in view, the tile count if it is past the layer's end.
+	 */
+	public int getFirstVisibleTile(int layer, Rectangle view)
+	{
+		float start = (view.x - getScrollX(layer) - getTileX(layer, 0)) / dimension.x;
+		return MathUtils.clamp((int)Math.floor(start), 0, getTileCount(layer));
+	}
+
+	/**
+	 * @param layer		index of the layer, 0 is the farthest
+	 * @param view		the area the camera shows, in world units
+	 * @param first		the leftmost tile in view, from getFirstVisibleTile
+	 * @return			Number of tiles of the layer in view, never more than getMaxVisibleTiles.
+	 */
+	public int getVisibleTileCount(int layer, Rectangle view, int first)
+	{
+		float end = (view.x + view.width - getScrollX(layer) - getTileX(layer, 0)) / dimension.x;
+		return Math.max(0, MathUtils.clamp((int)Math.ceil(end), 0, getTileCount(layer)) - first);
+	}
+
+	/**
+	 * @param layer		index of the layer, 0 is the farthest
+	 * @param viewWidth	width of the area the camera shows, in world units
+	 * @return			The most tiles of the layer that can be in view at once.
+	 */
+	public int getMaxVisibleTiles(int layer, float viewWidth)
+	{
+		return Math.min(getTileCount(layer), MathUtils.ceil(viewWidth / dimension.x) + 1);
+	}
+
+	/**
+	 * @return	Width of a tile, the distance between two tiles of a layer.
+	 */
+	public float getTileWidth()
+	{
+		return dimension.x;
 	}
 
 	/**
-	 * Calls the drawGrass and drawFence method.
+	 * Sets the area the camera shows, only the tiles inside it are drawn.
+	 * @param view		the area, in world units
+	 */
+	public void setView(Rectangle view)
+	{
+		this.view.set(view);
+	}
+
+	/**
+	 * @return	X position of a tile of a layer, without the scrolling.
+	 */
+	private float getTileX(int layer, int tile)
+	{
+		return origin.x + dimension.x * (layers[layer].offsetX + tile);
+	}
+
+	/**
+	 * @return	Y position of the tiles of a layer.
+	 */
+	private float getTileY(int layer)
+	{
+		return origin.y + dimension.y * layers[layer].offsetY + position.y;
+	}
+
+	/**
+	 * Draws every background layer, back to front.
 	 * 
 	 * @param batch	Spritebatch being used to draw.
 	 */
 	@Override
 	public void render(SpriteBatch batch)
 	{
-		// fences in the farthest background layer
-		drawFence(batch, 0.5f, .5f, 1f, .8f);
-
-		// grass in the second background layer
-		drawGrass(batch, 0.25f, .25f, 0.5f, .5f);
-
-		// grass in the closest background layer
-		drawGrass(batch, 0.0f, -.15f, 0.9f, .3f);
+		for (int i = 0; i < layers.length; i++)
+			drawLayer(batch, i);
 	}
 
 	/**
@@ -4,7 +4,7 @@ import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 import com.packetpub.libgdx.rutter.game.Assets;
 
 /**
@@ -13,19 +13,26 @@ import com.packetpub.libgdx.rutter.game.Assets;
  */
 public class Bug extends AbstractGameObject
 {
+	// the bug walks left for WALK_TIME seconds, then right for WALK_TIME
+	private static final float WALK_TIME = 0.83f;
+	// force the bug walks with, in newtons
+	private static final float WALK_FORCE = 100;
+	
 	private TextureRegion regBug;
 	private Animation animBug;
 	public Animation animDead;
 
 	public boolean killed;
 	public boolean grounded = false;
-	public int frames = 0;
+	// seconds into the current walk left and back
+	public float walkTime = 0;
 
 	/**
 	 * Constructor, just calls init
 	 */
 	public Bug()
 	{
+		super(EntityKind.BUG);
 		init();
 	}
 
@@ -81,6 +88,38 @@ public class Bug extends AbstractGameObject
 		dimension.set(2,2);
 	}
 
+	/**
+	 * A killed bug is finished once its death animation has played.
+	 */
+	@Override
+	public boolean isFinished()
+	{
+		return killed && animation.isAnimationFinished(stateTime);
+	}
+	
+	/**
+	 * A killed bug is finishing while its death animation plays.
+	 */
+	@Override
+	public boolean isFinishing()
+	{
+		return killed;
+	}
+	
+	/**
+	 * Brings a killed bug back to life at its spawn point.
+	 */
+	@Override
+	public void reset()
+	{
+		super.reset();
+		killed = false;
+		grounded = false;
+		walkTime = 0;
+		dimension.set(1f, 2.0f);
+		setAnimation(animBug);
+	}
+	
 	/**
 	 * Returns a score value when called
 	 * 
@@ -99,35 +138,23 @@ public class Bug extends AbstractGameObject
 		return "bug";
 	}
 	
-	@Override
 	/**
-	 * Updates the bug based on the time since last frame
-	 * @param deltaTime		Time since last frame
+	 * Updates the bug for the game time since it last thought, which is one tick when
+	 * it's near the player and longer when it's far away.
+	 * @param deltaTime		Time since the last update
 	 */
+	@Override
 	public void update (float deltaTime)
 	{
 		super.update(deltaTime);
-		if (grounded)
-			{
-			frames++;
-			// switch off between moving left and right ever other second
-			if (frames < 50)
-			{
-				body.applyForceToCenter(-100, 0, true);
-			}
-			else
-			{
-				if (frames > 100)
-				{
-					frames = 0;
-				}
-				else
-				{
-					body.applyForceToCenter(100, 0, true);
-				}
-			}
+		if (grounded && !killed)
+		{
+			// switch off between moving left and right
+			walkTime = (walkTime + deltaTime) % (WALK_TIME * 2);
+			float force = walkTime < WALK_TIME ? -WALK_FORCE : WALK_FORCE;
+			// a force over the whole time as one push, the same as a force every tick
+			Vector2 center = body.getWorldCenter();
+			body.applyLinearImpulse(force * deltaTime, 0, center.x, center.y, true);
 		}
-		position.set(body.getPosition());
-		rotation = body.getAngle() * MathUtils.radiansToDegrees;
 	}
 }
\ No newline at end of file
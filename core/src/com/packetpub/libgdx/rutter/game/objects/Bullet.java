@@ -22,6 +22,7 @@ public class Bullet extends AbstractGameObject
 	 */
 	public Bullet()
 	{
+		super(EntityKind.BULLET);
 		init();
 	}
 
@@ -55,6 +56,20 @@ public class Bullet extends AbstractGameObject
 		}
 	}
 	
+	/**
+	 * Takes the bullet off screen.
+	 */
+	@Override
+	public void reset()
+	{
+		super.reset();
+		onScreen = false;
+		reversed = false;
+		// the pooled body waits outside the simulation until the bullet is fired
+		if (body != null)
+			body.setActive(false);
+	}
+	
 	/**
 	 * Renders the bullet (if it's been fired, and hasn't hit anything)
 	 * 
@@ -1,6 +1,7 @@
 package com.packetpub.libgdx.rutter.game.objects;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.packetpub.libgdx.rutter.game.Assets;
@@ -13,6 +14,9 @@ import com.packetpub.libgdx.rutter.game.Assets;
  */
 public class Dirt extends AbstractGameObject
 {
+	// height of a dirt tile in meters
+	public static final float HEIGHT = 1.5f;
+	
 	private TextureRegion regEdge;
 	private TextureRegion regMiddle;
 	
@@ -24,6 +28,7 @@ public class Dirt extends AbstractGameObject
 	 */
 	public Dirt()
 	{
+		super(EntityKind.DIRT);
 		init();
 	}
 	
@@ -32,7 +37,7 @@ public class Dirt extends AbstractGameObject
 	 */
 	private void init()
 	{
-		dimension.set(1, 1.5f);
+		dimension.set(1, HEIGHT);
 		
 		regEdge = Assets.instance.dirt.edge;
 		regMiddle = Assets.instance.dirt.middle;
@@ -60,6 +65,15 @@ public class Dirt extends AbstractGameObject
 		setLength(length + amount);
 	}
 	
+	/**
+	 * Includes the edges, which stick out a quarter tile on both sides.
+	 */
+	@Override
+	public Rectangle getBounds(Rectangle out)
+	{
+		return out.set(position.x - dimension.x / 4, position.y, bounds.width + dimension.x / 2, dimension.y);
+	}
+	
 	/**
 	 * Renders the dirt object, by drawing the left edge, a certain amount of
 	 * middle edges, and then the right edge as a mirrored left edge.
@@ -101,6 +115,45 @@ public class Dirt extends AbstractGameObject
 				reg.getRegionWidth(), reg.getRegionHeight(), true, false);
 	}
 	
+	/**
+	 * Adds the dirt to a sprite cache, tile for tile the way render draws it.
+	 * Dirt never moves, so the cache can be drawn for the rest of the level.
+	 * @param cache		SpriteCache between beginCache and endCache.
+	 */
+	public void cache(SpriteCache cache)
+	{
+		TextureRegion reg = regEdge;
+		cache.add(reg.getTexture(), position.x - dimension.x / 4, position.y,
+				origin.x, origin.y, dimension.x / 4, dimension.y,
+				scale.x, scale.y, rotation, reg.getRegionX(), reg.getRegionY(),
+				reg.getRegionWidth(), reg.getRegionHeight(), false, false);
+		
+		float relX = 0;
+		reg = regMiddle;
+		for (int i = 0; i < length; i++)
+		{
+			cache.add(reg.getTexture(), position.x + relX, position.y,
+					origin.x, origin.y, dimension.x, dimension.y,
+					scale.x, scale.y, rotation, reg.getRegionX(), reg.getRegionY(),
+					reg.getRegionWidth(), reg.getRegionHeight(), false, false);
+			relX += dimension.x;
+		}
+		
+		reg = regEdge;
+		cache.add(reg.getTexture(), position.x + relX, position.y,
+				origin.x + dimension.x / 8, origin.y, dimension.x / 4, dimension.y,
+				scale.x, scale.y, rotation, reg.getRegionX(), reg.getRegionY(),
+				reg.getRegionWidth(), reg.getRegionHeight(), true, false);
+	}
+	
+	/**
+	 * @return	Number of sprites the dirt is drawn with, the middle tiles and two edges.
+	 */
+	public int getSpriteCount()
+	{
+		return length + 2;
+	}
+	
 	/**
 	 * Returns name of object
 	 */
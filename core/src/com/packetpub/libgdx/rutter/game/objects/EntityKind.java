@@ -0,0 +1,20 @@
+package com.packetpub.libgdx.rutter.game.objects;
+
+/**
+ * @author Kevin Rutter
+ * Tags what kind of object a game object is, so code that only gets the
+ * object back from a Box2D body can branch on it without string compares.
+ */
+public enum EntityKind
+{
+	NONE,
+	DIRT,
+	BUG,
+	GUN,
+	NORI,
+	RICE_GRAIN,
+	BULLET,
+	RICEBALL,
+	WATER,
+	GOAL
+}
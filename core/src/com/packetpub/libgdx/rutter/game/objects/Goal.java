@@ -19,6 +19,7 @@ public class Goal extends AbstractGameObject
 	 */
 	public Goal()
 	{
+		super(EntityKind.GOAL);
 		init();
 	}
 
@@ -21,6 +21,7 @@ public class Gun extends AbstractGameObject
 	 */
 	public Gun()
 	{
+		super(EntityKind.GUN);
 		init();
 	}
 
@@ -54,19 +55,38 @@ public class Gun extends AbstractGameObject
 
 		TextureRegion reg = null;
 		reg = regGun;
-		batch.draw(reg.getTexture(), position.x, position.y, origin.x, origin.y, dimension.x, dimension.y, scale.x,
+		batch.draw(reg.getTexture(), position.x, position.y + getFloatOffset(), origin.x, origin.y, dimension.x, dimension.y, scale.x,
 				scale.y, rotation, reg.getRegionX(), reg.getRegionY(), reg.getRegionWidth(), reg.getRegionHeight(),
 				false, false);
 	}
 	
 	/**
-	 * Handles updating updating the item to make it float with lerp.
+	 * Puts the item back at its spawn point, uncollected.
+	 */
+	@Override
+	public void reset()
+	{
+		super.reset();
+		collected = false;
+		bullets = 3;
+	}
+	
+	/**
+	 * A collected item is finished until the level is reset.
+	 */
+	@Override
+	public boolean isFinished()
+	{
+		return collected;
+	}
+	
+	/**
+	 * The item's body never moves, only the clock of its bobbing runs.
 	 */
 	@Override
 	public void update(float deltaTime)
 	{
-		super.update(deltaTime);
-		super.lerpUpdate(deltaTime);
+		stateTime += deltaTime;
 	}
 
 	/**
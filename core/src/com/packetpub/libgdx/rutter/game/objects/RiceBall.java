@@ -47,6 +47,7 @@ public class RiceBall extends AbstractGameObject
 	 */
 	public RiceBall()
 	{
+		super(EntityKind.RICEBALL);
 		init();
 	}
 	
@@ -200,6 +201,22 @@ public class RiceBall extends AbstractGameObject
 //		super.updateMotionY(deltaTime);
 	}
 	
+	/**
+	 * Puts the riceball back at the spawn point with its starting health and no gun.
+	 */
+	@Override
+	public void reset()
+	{
+		super.reset();
+		viewDirection = VIEW_DIRECTION.RIGHT;
+		jumpState = JUMP_STATE.FALLING;
+		timeJumping = 0;
+		bullets = 0;
+		health = 1;
+		isJumping = false;
+		dustParticles.allowCompletion();
+	}
+	
 	/**
 	 * Renders the riceball in the world using the sprite batch
 	 */
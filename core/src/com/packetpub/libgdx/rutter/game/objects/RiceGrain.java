@@ -21,6 +21,7 @@ public class RiceGrain extends AbstractGameObject
 	 */
 	public RiceGrain()
 	{
+		super(EntityKind.RICE_GRAIN);
 		init();
 	}
 
@@ -51,19 +52,37 @@ public class RiceGrain extends AbstractGameObject
 
 		TextureRegion reg = null;
 		reg = regRiceGrain;
-		batch.draw(reg.getTexture(), position.x, position.y, origin.x, origin.y, dimension.x, dimension.y, scale.x,
+		batch.draw(reg.getTexture(), position.x, position.y + getFloatOffset(), origin.x, origin.y, dimension.x, dimension.y, scale.x,
 				scale.y, rotation, reg.getRegionX(), reg.getRegionY(), reg.getRegionWidth(), reg.getRegionHeight(),
 				false, false);
 	}
 	
 	/**
-	 * Handles updating updating the item to make it float with lerp.
+	 * Puts the item back at its spawn point, uncollected.
+	 */
+	@Override
+	public void reset()
+	{
+		super.reset();
+		collected = false;
+	}
+	
+	/**
+	 * A collected item is finished until the level is reset.
+	 */
+	@Override
+	public boolean isFinished()
+	{
+		return collected;
+	}
+	
+	/**
+	 * The item's body never moves, only the clock of its bobbing runs.
 	 */
 	@Override
 	public void update(float deltaTime)
 	{
-		super.update(deltaTime);
-		super.lerpUpdate(deltaTime);
+		stateTime += deltaTime;
 	}
 
 	/**
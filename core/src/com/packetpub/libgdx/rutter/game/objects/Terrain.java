@@ -0,0 +1,39 @@
+package com.packetpub.libgdx.rutter.game.objects;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * Stands for the merged terrain boxes in contacts. The boxes cover many dirt
+ * platforms each, so they can't point at any single one; they count as dirt.
+ * Nothing is drawn, the dirt platforms draw themselves.
+ * 
+ * @author Kevin Rutter
+ */
+public class Terrain extends AbstractGameObject
+{
+	/**
+	 * Constructor for the terrain object.
+	 */
+	public Terrain()
+	{
+		super(EntityKind.DIRT);
+	}
+
+	/**
+	 * The terrain isn't drawn.
+	 * 
+	 * @param batch
+	 *            SpriteBatch being used to draw.
+	 */
+	public void render(SpriteBatch batch)
+	{
+	}
+
+	/**
+	 * Returns name of object
+	 */
+	public String toString()
+	{
+		return "terrain";
+	}
+}
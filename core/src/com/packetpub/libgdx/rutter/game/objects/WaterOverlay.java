@@ -22,6 +22,7 @@ public class WaterOverlay extends AbstractGameObject
 	 */
 	public WaterOverlay(float length)
 	{
+		super(EntityKind.WATER);
 		this.length = length;
 		init();
 	}
@@ -0,0 +1,119 @@
+package com.packetpub.libgdx.rutter.game.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.packetpub.libgdx.rutter.game.components.AiComponent;
+import com.packetpub.libgdx.rutter.game.components.RetiredComponent;
+import com.packetpub.libgdx.rutter.game.components.TransformComponent;
+import com.packetpub.libgdx.rutter.game.objects.AbstractGameObject;
+
+/**
+ * @author Kevin Rutter
+ * Runs the behavior of every entity that moves on its own. Entities that are
+ * finished are retired, which takes them out of every system until the level resets.
+ *
+ * How often an entity thinks depends on how far it is from the player: near ones
+ * every tick, farther ones every FAR_INTERVAL seconds of game time, handed all the
+ * time since they last thought, and the farthest not at all, so their bodies come
+ * to rest and Box2D puts them to sleep. Far entities are spread over the ticks of
+ * an interval, so a level full of them doesn't think all in the same tick.
+ * Distances are measured between bodies, not where things were last drawn, so
+ * which entities think in a tick doesn't depend on the frame rate. Entities that
+ * are finishing, e.g. dying, think every tick wherever they are.
+ */
+public class AiSystem extends IteratingSystem implements EntityListener
+{
+	// entities this close to the player, in meters along the level, think every tick
+	private static final float NEAR_DISTANCE = 10f;
+	// entities farther than this don't think
+	private static final float SLEEP_DISTANCE = 40f;
+	// seconds between thinking for the entities in between
+	private static final float FAR_INTERVAL = 0.25f;
+	// spreads the entities evenly over an interval, whatever their number
+	private static final float GOLDEN_RATIO_FRACTION = 0.618034f;
+
+	private AbstractGameObject focus;
+	private int added;
+
+	/**
+	 * Constructor for AiSystem.
+	 * @param priority	When the system runs, lower runs first.
+	 */
+	public AiSystem(int priority)
+	{
+		super(Family.all(TransformComponent.class, AiComponent.class).exclude(RetiredComponent.class).get(), priority);
+	}
+
+	/**
+	 * Sets what the distance of an entity is measured from.
+	 * @param focus		The player, null makes every entity think every tick.
+	 */
+	public void setFocus(AbstractGameObject focus)
+	{
+		this.focus = focus;
+	}
+
+	@Override
+	public void addedToEngine(Engine engine)
+	{
+		super.addedToEngine(engine);
+		engine.addEntityListener(getFamily(), this);
+		for (int i = 0; i < getEntities().size(); i++)
+			entityAdded(getEntities().get(i));
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine)
+	{
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+	}
+
+	@Override
+	public void entityAdded(Entity entity)
+	{
+		// each entity starts at a different point of the interval
+		AiComponent.mapper.get(entity).sinceThink = (added++ * GOLDEN_RATIO_FRACTION) % 1f * FAR_INTERVAL;
+	}
+
+	@Override
+	public void entityRemoved(Entity entity)
+	{
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime)
+	{
+		AbstractGameObject object = TransformComponent.mapper.get(entity).object;
+		if (object.isFinished())
+		{
+			entity.add(new RetiredComponent());
+			return;
+		}
+
+		AiComponent ai = AiComponent.mapper.get(entity);
+		ai.sinceThink += deltaTime;
+		float distance = focus == null || object.isFinishing() ? 0 : Math.abs(getX(object) - getX(focus));
+		if (distance > SLEEP_DISTANCE)
+		{
+			// asleep, nothing to catch up on when it wakes
+			ai.sinceThink = Math.min(ai.sinceThink, FAR_INTERVAL);
+			return;
+		}
+		if (distance > NEAR_DISTANCE && ai.sinceThink < FAR_INTERVAL)
+			return;
+		object.update(ai.sinceThink);
+		ai.sinceThink = 0;
+	}
+
+	/**
+	 * @return	Where the object is along the level in the physics simulation.
+	 */
+	private static float getX(AbstractGameObject object)
+	{
+		return object.body != null ? object.body.getPosition().x : object.position.x;
+	}
+}
@@ -0,0 +1,38 @@
+package com.packetpub.libgdx.rutter.game.systems;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.packetpub.libgdx.rutter.game.components.CollectibleComponent;
+import com.packetpub.libgdx.rutter.game.components.RetiredComponent;
+import com.packetpub.libgdx.rutter.game.components.TransformComponent;
+import com.packetpub.libgdx.rutter.game.objects.AbstractGameObject;
+
+/**
+ * @author Kevin Rutter
+ * Animates the pickups lying around the level. Their bodies are static sensors,
+ * so this only runs the clock their bobbing is drawn from. Collected pickups are
+ * retired, which takes them out of every system until the level resets.
+ */
+public class CollectibleSystem extends IteratingSystem
+{
+	/**
+	 * Constructor for CollectibleSystem.
+	 * @param priority	When the system runs, lower runs first.
+	 */
+	public CollectibleSystem(int priority)
+	{
+		super(Family.all(TransformComponent.class, CollectibleComponent.class).exclude(RetiredComponent.class).get(),
+				priority);
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime)
+	{
+		AbstractGameObject object = TransformComponent.mapper.get(entity).object;
+		if (object.isFinished())
+			entity.add(new RetiredComponent());
+		else
+			object.update(deltaTime);
+	}
+}
@@ -0,0 +1,121 @@
+package com.packetpub.libgdx.rutter.game.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.packetpub.libgdx.rutter.game.components.AiComponent;
+import com.packetpub.libgdx.rutter.game.components.BodyComponent;
+import com.packetpub.libgdx.rutter.game.components.CollectibleComponent;
+import com.packetpub.libgdx.rutter.game.components.RetiredComponent;
+import com.packetpub.libgdx.rutter.game.components.TransformComponent;
+
+/**
+ * @author Kevin Rutter
+ * Owns everything to do with the bodies of entities: creating them, syncing the
+ * objects to them every tick, and drawing the objects between ticks.
+ * Bugs and pickups are updated by their own systems.
+ */
+public class PhysicsSystem extends IteratingSystem
+{
+	private static final Family BODIES = Family.all(TransformComponent.class, BodyComponent.class).get();
+	// pickups have static bodies and retired entities aren't drawn, there is nothing to draw between ticks for them
+	private static final Family MOVING = Family.all(TransformComponent.class, BodyComponent.class)
+			.exclude(CollectibleComponent.class, RetiredComponent.class).get();
+
+	private ImmutableArray<Entity> bodies;
+	private ImmutableArray<Entity> moving;
+
+	/**
+	 * Constructor for PhysicsSystem.
+	 * @param priority	When the system runs, lower runs first.
+	 */
+	public PhysicsSystem(int priority)
+	{
+		super(Family.all(TransformComponent.class, BodyComponent.class)
+				.exclude(AiComponent.class, CollectibleComponent.class).get(), priority);
+	}
+
+	@Override
+	public void addedToEngine(Engine engine)
+	{
+		super.addedToEngine(engine);
+		bodies = engine.getEntitiesFor(BODIES);
+		moving = engine.getEntitiesFor(MOVING);
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime)
+	{
+		TransformComponent.mapper.get(entity).object.update(deltaTime);
+	}
+
+	/**
+	 * Creates a box shaped body for every entity that has a body component.
+	 * @param world		The world to create the bodies in.
+	 */
+	public void createBodies(World world)
+	{
+		BodyDef bodyDef = new BodyDef();
+		PolygonShape polygonShape = new PolygonShape();
+		FixtureDef fixtureDef = new FixtureDef();
+		fixtureDef.shape = polygonShape;
+		for (int i = 0; i < bodies.size(); i++)
+		{
+			Entity entity = bodies.get(i);
+			TransformComponent transform = TransformComponent.mapper.get(entity);
+			BodyComponent definition = BodyComponent.mapper.get(entity);
+
+			bodyDef.type = definition.type;
+			bodyDef.position.set(transform.position);
+			bodyDef.fixedRotation = definition.fixedRotation;
+			bodyDef.active = definition.active;
+			Body body = world.createBody(bodyDef);
+
+			polygonShape.setAsBox(transform.dimension.x / 2.0f, transform.dimension.y / 2.0f, definition.center, 0);
+			fixtureDef.isSensor = definition.sensor;
+			fixtureDef.density = definition.density;
+			fixtureDef.restitution = definition.restitution;
+			fixtureDef.friction = definition.friction;
+			body.createFixture(fixtureDef);
+
+			body.setUserData(transform.object);
+			transform.object.body = body;
+		}
+		polygonShape.dispose();
+	}
+
+	/**
+	 * Remembers the body state of every object that can move before a physics tick.
+	 */
+	public void savePhysicsState()
+	{
+		for (int i = 0; i < moving.size(); i++)
+			TransformComponent.mapper.get(moving.get(i)).object.savePhysicsState();
+	}
+
+	/**
+	 * Moves every object that can move to where it is drawn this frame.
+	 * @param alpha		How far into the next physics tick the frame is, from 0 to 1.
+	 */
+	public void interpolate(float alpha)
+	{
+		for (int i = 0; i < moving.size(); i++)
+			TransformComponent.mapper.get(moving.get(i)).object.interpolate(alpha);
+	}
+
+	/**
+	 * Puts every object with a body back at its spawn point.
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < bodies.size(); i++)
+			TransformComponent.mapper.get(bodies.get(i)).object.reset();
+	}
+}
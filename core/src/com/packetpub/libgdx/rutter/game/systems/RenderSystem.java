@@ -0,0 +1,138 @@
+package com.packetpub.libgdx.rutter.game.systems;
+
+import java.util.Comparator;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.packetpub.libgdx.rutter.game.components.RetiredComponent;
+import com.packetpub.libgdx.rutter.game.components.SpriteComponent;
+import com.packetpub.libgdx.rutter.game.components.TransformComponent;
+import com.packetpub.libgdx.rutter.game.objects.AbstractGameObject;
+import com.packetpub.libgdx.rutter.util.FrameProfiler;
+import com.packetpub.libgdx.rutter.util.FrameProfiler.Phase;
+import com.packetpub.libgdx.rutter.util.SpatialGrid;
+
+/**
+ * @author Kevin Rutter
+ * Draws the entities that are on screen, back to front by layer.
+ * Entities are looked up in the spatial index, so only the part of the level
+ * around the camera is looked at. Drawing happens when the renderer asks for it,
+ * not when the engine updates.
+ */
+public class RenderSystem extends EntitySystem implements EntityListener
+{
+	// retired entities leave the index and come back when the level resets
+	private static final Family SPRITES = Family.all(TransformComponent.class, SpriteComponent.class)
+			.exclude(RetiredComponent.class).get();
+
+	// how far past the edges of the view objects are still drawn, covers sprites drawn outside their bounds
+	private static final float CULL_MARGIN = 1f;
+
+	private final SpatialGrid index;
+	private final ObjectIntMap<AbstractGameObject> layers = new ObjectIntMap<AbstractGameObject>();
+	private final Array<AbstractGameObject> alwaysVisible = new Array<AbstractGameObject>();
+	// layers below this one are drawn from a cache by the renderer
+	private int lowestLayer;
+
+	// scratch space for culling
+	private final Array<AbstractGameObject> visible = new Array<AbstractGameObject>();
+	private final Rectangle cullArea = new Rectangle();
+
+	private final Comparator<AbstractGameObject> drawOrder = new Comparator<AbstractGameObject>()
+	{
+		@Override
+		public int compare(AbstractGameObject a, AbstractGameObject b)
+		{
+			return layers.get(a, 0) - layers.get(b, 0);
+		}
+	};
+
+	/**
+	 * Constructor for RenderSystem.
+	 * @param index		The index culled entities are kept in.
+	 */
+	public RenderSystem(SpatialGrid index)
+	{
+		this.index = index;
+		setProcessing(false);
+	}
+
+	@Override
+	public void addedToEngine(Engine engine)
+	{
+		engine.addEntityListener(SPRITES, this);
+		for (Entity entity : engine.getEntitiesFor(SPRITES))
+			entityAdded(entity);
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine)
+	{
+		engine.removeEntityListener(this);
+		index.clear();
+		layers.clear();
+		alwaysVisible.clear();
+	}
+
+	@Override
+	public void entityAdded(Entity entity)
+	{
+		AbstractGameObject object = TransformComponent.mapper.get(entity).object;
+		SpriteComponent sprite = SpriteComponent.mapper.get(entity);
+		layers.put(object, sprite.layer);
+		if (sprite.alwaysVisible)
+			alwaysVisible.add(object);
+		else
+			index.add(object);
+	}
+
+	@Override
+	public void entityRemoved(Entity entity)
+	{
+		AbstractGameObject object = TransformComponent.mapper.get(entity).object;
+		layers.remove(object, 0);
+		alwaysVisible.removeValue(object, true);
+		index.remove(object);
+	}
+
+	/**
+	 * Stops drawing the layers below a layer, for when they are drawn some other way.
+	 * @param layer		The lowest layer still drawn, 0 draws every layer.
+	 */
+	public void setLowestLayer(int layer)
+	{
+		lowestLayer = layer;
+	}
+
+	/**
+	 * Draws the entities inside an area.
+	 * @param batch		Spritebatch object
+	 * @param view		The area the camera shows, in world units
+	 */
+	public void render(SpriteBatch batch, Rectangle view)
+	{
+		cullArea.set(view.x - CULL_MARGIN, view.y - CULL_MARGIN,
+				view.width + CULL_MARGIN * 2, view.height + CULL_MARGIN * 2);
+
+		FrameProfiler.instance.begin(Phase.CULLING);
+		visible.clear();
+		index.query(cullArea, visible);
+		visible.addAll(alwaysVisible);
+		visible.sort(drawOrder);
+		FrameProfiler.instance.end(Phase.CULLING);
+
+		for (int i = 0; i < visible.size; i++)
+		{
+			AbstractGameObject object = visible.get(i);
+			if (layers.get(object, 0) >= lowestLayer)
+				object.render(batch);
+		}
+	}
+}
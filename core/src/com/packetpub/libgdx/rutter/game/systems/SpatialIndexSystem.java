@@ -0,0 +1,40 @@
+package com.packetpub.libgdx.rutter.game.systems;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.packetpub.libgdx.rutter.game.components.BodyComponent;
+import com.packetpub.libgdx.rutter.game.components.CollectibleComponent;
+import com.packetpub.libgdx.rutter.game.components.RetiredComponent;
+import com.packetpub.libgdx.rutter.game.components.SpriteComponent;
+import com.packetpub.libgdx.rutter.game.components.TransformComponent;
+import com.packetpub.libgdx.rutter.util.SpatialGrid;
+
+/**
+ * @author Kevin Rutter
+ * Keeps the spatial index up to date with entities that have moved.
+ * Runs after every system that moves things. Pickups never move and retired
+ * entities aren't drawn, so neither is looked at.
+ */
+public class SpatialIndexSystem extends IteratingSystem
+{
+	private final SpatialGrid index;
+
+	/**
+	 * Constructor for SpatialIndexSystem.
+	 * @param index		The index to update, objects that are not in it are skipped.
+	 * @param priority	When the system runs, lower runs first.
+	 */
+	public SpatialIndexSystem(SpatialGrid index, int priority)
+	{
+		super(Family.all(TransformComponent.class, SpriteComponent.class, BodyComponent.class)
+				.exclude(CollectibleComponent.class, RetiredComponent.class).get(), priority);
+		this.index = index;
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime)
+	{
+		index.update(TransformComponent.mapper.get(entity).object);
+	}
+}
@@ -3,7 +3,6 @@ package com.packetpub.libgdx.rutter.screens;
 import com.badlogic.gdx.Screen;
 
 import com.badlogic.gdx.Game;
-import com.badlogic.gdx.assets.AssetManager;
 import com.packetpub.libgdx.rutter.game.Assets;
 
 /**
@@ -50,18 +49,17 @@ public abstract class AbstractGameScreen implements Screen
 	public abstract void pause();
 
 	/**
-	 * Resumes the game from being paused
+	 * Resumes the game from being paused, reloading only assets that were lost meanwhile
 	 */
 	public void resume()
 	{
-		Assets.instance.init(new AssetManager());
+		Assets.instance.resume();
 	}
 
 	/**
-	 * Gets rid of unused elements
+	 * Gets rid of unused elements. The shared assets belong to the game, not to a screen.
 	 */
 	public void dispose()
 	{
-		Assets.instance.dispose();
 	}
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.packetpub.libgdx.rutter.game.WorldController;
 import com.packetpub.libgdx.rutter.game.WorldRenderer;
+import com.packetpub.libgdx.rutter.util.FrameProfiler;
+import com.packetpub.libgdx.rutter.util.GamePreferences;
 
 /**
  * @author Kevin Rutter
@@ -40,6 +42,8 @@ public class GameScreen extends AbstractGameScreen
 	@Override
 	public void render(float deltaTime)
 	{
+		FrameProfiler.instance.beginFrame();
+		
 		// Do not update game world when paused
 		if (!paused)
 		{
@@ -74,6 +78,9 @@ public class GameScreen extends AbstractGameScreen
 	{
 		//worldController = new WorldController(game);
 		worldRenderer = new WorldRenderer(worldController);
+		// the frame timings are shown together with the fps counter
+		FrameProfiler.instance.enabled = GamePreferences.instance.showFpsCounter;
+		FrameProfiler.instance.reset();
 		Gdx.input.setCatchBackKey(true);
 	}
 
@@ -0,0 +1,130 @@
+package com.packetpub.libgdx.rutter.screens;
+
+import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.packetpub.libgdx.rutter.game.Assets;
+import com.packetpub.libgdx.rutter.util.AudioManager;
+import com.packetpub.libgdx.rutter.util.Constants;
+
+/**
+ * @author Kevin Rutter
+ * Shows a progress bar while assets load, then moves on to the menu or the game.
+ * The menu opens as soon as its own assets are in, the game waits for everything.
+ */
+public class LoadingScreen extends AbstractGameScreen
+{
+	private static final String TAG = LoadingScreen.class.getName();
+
+	private static final float BAR_WIDTH = 400;
+	private static final float BAR_HEIGHT = 20;
+
+	private final boolean waitForGame;
+
+	private OrthographicCamera camera;
+	private ShapeRenderer shapeRenderer;
+	private SpriteBatch batch;
+
+	/**
+	 * Constructor for LoadingScreen.
+	 * @param game			This game.
+	 * @param waitForGame	True to wait for every asset and start the game,
+	 * 						false to open the menu once the menu's assets are loaded.
+	 */
+	public LoadingScreen(Game game, boolean waitForGame)
+	{
+		super(game);
+		this.waitForGame = waitForGame;
+	}
+
+	/**
+	 * Loads some more assets and draws how far along loading is.
+	 */
+	@Override
+	public void render(float deltaTime)
+	{
+		Assets.instance.update(Constants.LOADING_SCREEN_BUDGET_MILLIS);
+		if (waitForGame ? Assets.instance.isLoaded() : Assets.instance.isMenuLoaded())
+		{
+			done();
+			return;
+		}
+
+		Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+		float progress = Assets.instance.getProgress();
+		float x = (Constants.VIEWPORT_GUI_WIDTH - BAR_WIDTH) / 2;
+		float y = (Constants.VIEWPORT_GUI_HEIGHT - BAR_HEIGHT) / 2;
+		shapeRenderer.setProjectionMatrix(camera.combined);
+		shapeRenderer.begin(ShapeType.Filled);
+		shapeRenderer.setColor(0.25f, 0.25f, 0.25f, 1);
+		shapeRenderer.rect(x, y, BAR_WIDTH, BAR_HEIGHT);
+		shapeRenderer.setColor(1, 1, 1, 1);
+		shapeRenderer.rect(x, y, BAR_WIDTH * progress, BAR_HEIGHT);
+		shapeRenderer.end();
+
+		batch.setProjectionMatrix(camera.combined);
+		batch.begin();
+		BitmapFont font = Assets.instance.fonts.defaultNormal;
+		font.draw(batch, "Loading... " + (int)(progress * 100) + "%", x, y - 25);
+		batch.end();
+	}
+
+	/**
+	 * Moves on to the screen that was waiting for the assets.
+	 */
+	private void done()
+	{
+		Gdx.app.debug(TAG, waitForGame ? "game assets ready" : "menu assets ready");
+		AudioManager.instance.stopMusic();
+		if (waitForGame)
+		{
+			AudioManager.instance.play(Assets.instance.music.song02);
+			game.setScreen(new GameScreen(game));
+		}
+		else
+		{
+			AudioManager.instance.play(Assets.instance.music.menuMusic);
+			game.setScreen(new MenuScreen(game, false, 0));
+		}
+	}
+
+	@Override
+	public void resize(int width, int height)
+	{
+	}
+
+	/**
+	 * Sets up the camera and the renderers for the progress bar.
+	 */
+	@Override
+	public void show()
+	{
+		// y points down, like the rest of the gui and its flipped fonts
+		camera = new OrthographicCamera();
+		camera.setToOrtho(true, Constants.VIEWPORT_GUI_WIDTH, Constants.VIEWPORT_GUI_HEIGHT);
+		shapeRenderer = new ShapeRenderer();
+		batch = new SpriteBatch();
+	}
+
+	/**
+	 * Frees the renderers.
+	 */
+	@Override
+	public void hide()
+	{
+		shapeRenderer.dispose();
+		batch.dispose();
+	}
+
+	@Override
+	public void pause()
+	{
+	}
+}
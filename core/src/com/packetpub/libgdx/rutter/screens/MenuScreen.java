@@ -5,7 +5,7 @@ import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.Button;
@@ -28,15 +28,10 @@ import com.packetpub.libgdx.rutter.game.Assets;
 import com.packetpub.libgdx.rutter.util.AudioManager;
 import com.packetpub.libgdx.rutter.util.Constants;
 import com.packetpub.libgdx.rutter.util.GamePreferences;
+import com.packetpub.libgdx.rutter.util.HighScoreStore;
+import com.packetpub.libgdx.rutter.util.IoService;
 import static com.badlogic.gdx.scenes.scene2d.actions.Actions.*;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
 import com.badlogic.gdx.scenes.scene2d.Touchable;
@@ -76,6 +71,24 @@ public class MenuScreen extends AbstractGameScreen
 	private CheckBox chkMusic;
 	private Slider sldMusic;
 	private CheckBox chkShowFpsCounter;
+	// settings as they were when the options window opened, restored on cancel
+	private boolean oldSound, oldMusic, oldShowFpsCounter;
+	private float oldVolSound, oldVolMusic;
+	// true while the widgets are being filled in, so that doesn't count as a change
+	private boolean loadingSettings;
+	// applies every change right away, so the volume can be heard while dragging;
+	// the saves are written in the background and replace each other
+	private final ChangeListener settingsListener = new ChangeListener()
+	{
+		@Override
+		public void changed(ChangeEvent event, Actor actor)
+		{
+			if (loadingSettings)
+				return;
+			saveSettings();
+			AudioManager.instance.onSettingsUpdated();
+		}
+	};
 
 	// debug
 	private final float DEBUG_REBUILD_INTERVAL = 5.0f;
@@ -85,9 +98,9 @@ public class MenuScreen extends AbstractGameScreen
 	// high score
 	private Window winScore;
 	private TextButton btnWinScoreExit;
-	private String[] scoreNames = new String[10];
-	private int[] scoreNums = new int[10];
-	private boolean scoresGotten = false;
+	private String[] scoreNames = new String[Constants.HIGH_SCORES_SHOWN];
+	private int[] scoreNums = new int[Constants.HIGH_SCORES_SHOWN];
+	private int scoresShown;
 
 	// score entry
 	private Window winScoreEntry;
@@ -114,14 +127,11 @@ public class MenuScreen extends AbstractGameScreen
 	 */
 	private void rebuildStage()
 	{
-		skinRutter = new Skin(Gdx.files.internal(Constants.SKIN_RUTTER_UI),
-				new TextureAtlas(Constants.TEXTURE_ATLAS_UI));
+		// shared skins, loaded once by Assets
+		skinRutter = Assets.instance.ui.skinRutter;
+		skinLibgdx = Assets.instance.ui.skinLibgdx;
 
-		skinLibgdx = new Skin(Gdx.files.internal(Constants.SKIN_LIBGDX_UI),
-				new TextureAtlas(Constants.TEXTURE_ATLAS_LIBGDX_UI));
-
-		if (!scoresGotten)
-			getScores();
+		getScores();
 		
 		// build all layers
 		Table layerBackground = buildBackgroundLayer();
@@ -165,6 +175,7 @@ public class MenuScreen extends AbstractGameScreen
 		lbl = new Label("Enter your name", skinLibgdx);
 		winScoreEntry.add(lbl).row();
 		txt = new TextField("", skinLibgdx);
+		txt.setMaxLength(Constants.MAX_NAME_LENGTH);
 		winScoreEntry.add(txt).row();
 		//Gdx.input.setInputProcessor(txt);
 		winScoreEntry.add(buildScoreEntryButton());
@@ -234,116 +245,26 @@ public class MenuScreen extends AbstractGameScreen
 	}
 	
 	/**
-	 * Updates the score text file.
+	 * Adds the player's score to the high scores and rebuilds the score window.
+	 * The score is saved in the background.
 	 * @param name	Name of current player.
 	 */
-	public void updateScoreFile(String name)
-	{
-//		String[] scoreNames = new String[10];
-//		int[] scoreNums = new int[10];
-		File file = new File(Constants.SCORES);
-//		BufferedReader br = null;
-//		try
-//		{
-//			br = new BufferedReader(new FileReader(file));
-//		}
-//		catch (FileNotFoundException e)
-//		{
-//			e.printStackTrace();
-//		}
-//		
-//		String line;
-//		int i = 0;
-//		try
-//		{
-//			while((line = br.readLine()) != null)
-//			{
-//				scoreNames[i] = line;
-//				line = br.readLine();
-//				scoreNums[i] = Integer.parseInt(line);
-//				i++;
-//			}
-//		}
-//		catch (IOException e)
-//		{
-//			e.printStackTrace();
-//		}
-//		
-//		System.out.println("Before:");
-//		
-//		for(i = 0; i < 10; i++)
-//		{
-//			System.out.println(scoreNames[i]);
-//			System.out.println(scoreNums[i]);
-//		}
-		int i;
-		int newPosition = 10;
-		boolean notFound = true;
-		for (i = 0; i < 10 & notFound; i++)
-		{
-			if (score > scoreNums[i])
-			{
-				newPosition = i;
-				notFound = false;
-			}
-		}
-		
-		if (newPosition < 10)
-		{
-			i = 9;
-			while(i != newPosition)
-			{
-				scoreNums[i] = scoreNums[i-1];
-				scoreNames[i] = scoreNames[i-1];
-				i--;
-			}
-			scoreNums[i] = score;
-			scoreNames[i] = name;
-			System.out.println("placed "+ name+" in position "+i);
-		}
-		
-		System.out.println("sorted out score");
-		System.out.println("After:");
-		for(i = 0; i < 10; i++)
-		{
-			System.out.println(scoreNames[i]);
-			System.out.println(scoreNums[i]);
-		}
-		
-		System.out.println(name);
-		
-		FileWriter writer = null;
-		try
-		{
-			writer = new FileWriter(file, false);
-		}
-		catch (IOException e1)
-		{
-			e1.printStackTrace();
-		}
-		
-		for (i = 0; i < 10; i++)
+	public void updateScoreFile(final String name)
+	{
+		final int saving = score;
+		int rank = HighScoreStore.instance.add(name, score, new IoService.Callback()
 		{
-			try
+			@Override
+			public void done(boolean succeeded)
 			{
-				writer.write(scoreNames[i] + "\n");
-				writer.write(scoreNums[i] + "\n");
+				if (succeeded)
+					Gdx.app.debug(TAG, "saved score " + saving + " of " + name);
+				else
+					Gdx.app.error(TAG, "score " + saving + " of " + name + " was not saved, it is only kept until the game closes");
 			}
-			catch (IOException e)
-			{
-				e.printStackTrace();
-			}	
-		}
-		
-		try
-		{
-			writer.close();
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-		}
-		
+		});
+		Gdx.app.debug(TAG, "placed " + name + " at rank " + rank);
+		getScores();
 		stage.addActor(buildScoreWindowLayer());
 	}
 	
@@ -465,6 +386,12 @@ public class MenuScreen extends AbstractGameScreen
 	private void onPlayClicked()
 	{
 		AudioManager.instance.stopMusic();
+		// the gameplay assets may still be streaming in
+		if (!Assets.instance.isLoaded())
+		{
+			game.setScreen(new LoadingScreen(game, true));
+			return;
+		}
 		AudioManager.instance.play(Assets.instance.music.song02);
 		game.setScreen(new GameScreen(game));
 	}
@@ -526,6 +453,10 @@ public class MenuScreen extends AbstractGameScreen
 		sldMusic = new Slider(0.0f, 1.0f, 0.1f, false, skinLibgdx);
 		tbl.add(sldMusic);
 		tbl.row();
+		chkSound.addListener(settingsListener);
+		sldSound.addListener(settingsListener);
+		chkMusic.addListener(settingsListener);
+		sldMusic.addListener(settingsListener);
 		return tbl;
 	}
 
@@ -548,6 +479,7 @@ public class MenuScreen extends AbstractGameScreen
 		tbl.add(new Label("Show FPS Counter", skinLibgdx));
 		tbl.add(chkShowFpsCounter);
 		tbl.row();
+		chkShowFpsCounter.addListener(settingsListener);
 		return tbl;
 	}
 
@@ -628,39 +560,11 @@ public class MenuScreen extends AbstractGameScreen
 	}
 	
 	/**
-	 * Gets the scores from the high score file.
+	 * Gets the best scores from the high score store.
 	 */
 	private void getScores()
 	{
-		File file = new File(Constants.SCORES);
-		BufferedReader br = null;
-		try
-		{
-			br = new BufferedReader(new FileReader(file));
-		}
-		catch (FileNotFoundException e)
-		{
-			e.printStackTrace();
-		}
-		
-		String line;
-		int i = 0;
-		try
-		{
-			while((line = br.readLine()) != null)
-			{
-				scoreNames[i] = line;
-				line = br.readLine();
-				scoreNums[i] = Integer.parseInt(line);
-				i++;
-			}
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-		}
-		
-		scoresGotten = true;
+		scoresShown = HighScoreStore.instance.getTop(Constants.HIGH_SCORES_SHOWN, scoreNums, scoreNames);
 	}
 	
 	/**
@@ -671,13 +575,13 @@ public class MenuScreen extends AbstractGameScreen
 	private Table buildScoreWinRows()
 	{
 		Table tbl = new Table();
-		for (int i = 0; i < 10; i++)
+		for (int i = 0; i < Constants.HIGH_SCORES_SHOWN; i++)
 		{
 			Label lbl = null;
 			lbl = new Label(i+1 + ".      ", skinLibgdx);
 			tbl.add(lbl);
 			
-		    String score = ""+scoreNums[i];
+		    String score = i < scoresShown ? ""+scoreNums[i] : "";
 			lbl = new Label(score, skinLibgdx);
 			tbl.add(lbl);
 		    for (int j = 0; j < 10; j++)
@@ -686,7 +590,7 @@ public class MenuScreen extends AbstractGameScreen
 		    	tbl.add(lbl);
 		    }
 			
-			lbl = new Label(scoreNames[i], skinLibgdx);
+			lbl = new Label(i < scoresShown ? scoreNames[i] : "", skinLibgdx);
 			tbl.add(lbl);
 		    for (int j = 0; j < 10; j++)
 		    {
@@ -743,19 +647,51 @@ public class MenuScreen extends AbstractGameScreen
 	{
 		GamePreferences prefs = GamePreferences.instance;
 		prefs.load();
+		loadingSettings = true;
 		chkSound.setChecked(prefs.sound);
 		sldSound.setValue(prefs.volSound);
 		chkMusic.setChecked(prefs.music);
 		sldMusic.setValue(prefs.volMusic);
 		chkShowFpsCounter.setChecked(prefs.showFpsCounter);
+		loadingSettings = false;
 	}
 
+	/**
+	 * Remembers the current settings, so cancel can go back to them.
+	 */
+	private void rememberSettings()
+	{
+		GamePreferences prefs = GamePreferences.instance;
+		oldSound = prefs.sound;
+		oldVolSound = prefs.volSound;
+		oldMusic = prefs.music;
+		oldVolMusic = prefs.volMusic;
+		oldShowFpsCounter = prefs.showFpsCounter;
+	}
+
+	/**
+	 * Puts back the settings from when the options window was opened.
+	 */
+	private void restoreSettings()
+	{
+		GamePreferences prefs = GamePreferences.instance;
+		prefs.sound = oldSound;
+		prefs.volSound = oldVolSound;
+		prefs.music = oldMusic;
+		prefs.volMusic = oldVolMusic;
+		prefs.showFpsCounter = oldShowFpsCounter;
+		prefs.save();
+		AudioManager.instance.onSettingsUpdated();
+	}
+
+
 	/**
 	 * Loads the options window, hides other buttons.
 	 */
 	private void onOptionsClicked()
 	{
 		loadSettings();
+		rememberSettings();
 		showMenuButtons(false);
 		showOptionsWindow(true,true);
 		btnMenuPlay.setVisible(false);
@@ -783,14 +719,23 @@ public class MenuScreen extends AbstractGameScreen
 	private void onSaveClicked()
 	{
 		saveSettings();
-		onCancelClicked();
-		//AudioManager.instance.onSettingsUpdated();
+		AudioManager.instance.onSettingsUpdated();
+		closeOptionsWindow();
 	}
 
 	/**
-	 * Closes the options window, returns to the main menu.
+	 * Throws away changes made in settings, and returns to the main menu.
 	 */
 	private void onCancelClicked()
+	{
+		restoreSettings();
+		closeOptionsWindow();
+	}
+
+	/**
+	 * Closes the options window, returns to the main menu.
+	 */
+	private void closeOptionsWindow()
 	{
 		showMenuButtons(true);
 		showOptionsWindow(false,true);
@@ -880,6 +825,8 @@ public class MenuScreen extends AbstractGameScreen
 		stage = new Stage(new StretchViewport(Constants.VIEWPORT_GUI_WIDTH, Constants.VIEWPORT_GUI_HEIGHT));
 		Gdx.input.setInputProcessor(stage);
 		rebuildStage();
+		Gdx.app.debug(TAG, "texture memory: " + Assets.instance.getTextureMemory() / 1024 + " KB in "
+				+ Texture.getNumManagedTextures() + " textures");
 	}
 
 	/**
@@ -888,9 +835,8 @@ public class MenuScreen extends AbstractGameScreen
 	@Override
 	public void hide()
 	{
+		// the skins are shared, only the stage belongs to this screen
 		stage.dispose();
-		skinRutter.dispose();
-		skinLibgdx.dispose();
 	}
 
 	/**
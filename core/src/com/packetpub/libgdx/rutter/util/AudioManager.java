@@ -84,13 +84,13 @@ public class AudioManager
 	 * Plays a given music track in the background.
 	 * 
 	 * @param music
-	 *            The music that will be played.
+	 *            The music that will be played, nothing plays if it failed to load.
 	 */
 	public void play(Music music)
 	{
 		stopMusic();
 		playingMusic = music;
-		if (GamePreferences.instance.music)
+		if (music != null && GamePreferences.instance.music)
 		{
 			music.setLooping(true);
 			music.setVolume(GamePreferences.instance.volMusic);
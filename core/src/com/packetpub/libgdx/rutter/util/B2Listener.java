@@ -3,28 +3,84 @@ package com.packetpub.libgdx.rutter.util;
 import com.badlogic.gdx.physics.box2d.Contact;
 import com.badlogic.gdx.physics.box2d.ContactImpulse;
 import com.badlogic.gdx.physics.box2d.ContactListener;
-import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.Manifold;
 import com.packetpub.libgdx.rutter.game.Assets;
 import com.packetpub.libgdx.rutter.game.Level;
 import com.packetpub.libgdx.rutter.game.WorldController;
+import com.packetpub.libgdx.rutter.game.objects.AbstractGameObject;
 import com.packetpub.libgdx.rutter.game.objects.Bug;
 import com.packetpub.libgdx.rutter.game.objects.Bullet;
+import com.packetpub.libgdx.rutter.game.objects.EntityKind;
 import com.packetpub.libgdx.rutter.game.objects.Gun;
 import com.packetpub.libgdx.rutter.game.objects.Nori;
 import com.packetpub.libgdx.rutter.game.objects.RiceGrain;
+import com.packetpub.libgdx.rutter.util.FrameProfiler.Phase;
 
 /**
  * Contact Listener for the World.
  * Performs certain functions when one object collides with the other.
- * 
+ * The objects are looked up through the EntityKind stored on each body's user data,
+ * so handling a contact costs the same no matter how many objects the level has.
+ *
  * @author Kevin Rutter
  */
 public class B2Listener implements ContactListener
 {
+	private static final int KINDS = EntityKind.values().length;
+
 	private Level level;
 	private WorldController worldController;
-	
+
+	// handler for each pair of kinds, indexed by the kinds' ordinals
+	private final ContactHandler[][] handlers = new ContactHandler[KINDS][KINDS];
+	// true where the handler was registered for the pair in the opposite order
+	private final boolean[][] swapped = new boolean[KINDS][KINDS];
+
+	/**
+	 * Reacts to two objects touching. A handler always gets its objects
+	 * in the order of the kinds it was registered for.
+	 */
+	private interface ContactHandler
+	{
+		/**
+		 * @param a		Object of the first registered kind.
+		 * @param b		Object of the second registered kind.
+		 */
+		void handle(AbstractGameObject a, AbstractGameObject b);
+	}
+
+	/**
+	 * Runs two handlers for the same pair of kinds, one after the other.
+	 */
+	private static class ChainedHandler implements ContactHandler
+	{
+		private final ContactHandler first;
+		private final ContactHandler second;
+		private final boolean secondSwapped;
+
+		/**
+		 * @param first			Handler that runs first.
+		 * @param second		Handler that runs second.
+		 * @param secondSwapped	If the second handler expects the objects in the opposite order.
+		 */
+		public ChainedHandler(ContactHandler first, ContactHandler second, boolean secondSwapped)
+		{
+			this.first = first;
+			this.second = second;
+			this.secondSwapped = secondSwapped;
+		}
+
+		@Override
+		public void handle(AbstractGameObject a, AbstractGameObject b)
+		{
+			first.handle(a, b);
+			if (secondSwapped)
+				second.handle(b, a);
+			else
+				second.handle(a, b);
+		}
+	}
+
 	/**
 	 * Constructor for B2Listener. Needs level to get objects, controller to modify score, destroy bodies.
 	 * @param level		The game's level.
@@ -34,176 +90,246 @@ public class B2Listener implements ContactListener
 	{
 		this.level = level;
 		this.worldController = worldController;
+		registerHandlers();
 	}
-	
-	@Override
-	public void beginContact(Contact contact)
+
+	/**
+	 * Fills the dispatch table with what happens for each pair of kinds.
+	 */
+	private void registerHandlers()
 	{
-		Fixture fixtureA = contact.getFixtureA();
-		Fixture fixtureB = contact.getFixtureB();
-		System.out.println("Begin Contact: " + fixtureA.getBody().getUserData().toString() + " and " + fixtureB.getBody().getUserData().toString());
-		if (fixtureA.getBody().getUserData().toString() == "riceball" || fixtureB.getBody().getUserData().toString() == "riceball")
+		// any contact lands the riceball, so it can jump again
+		registerAll(EntityKind.RICEBALL, new ContactHandler()
 		{
-			//swap fixtureA and B so that riceball is in B, other object is in A.
-			if (fixtureA.getBody().getUserData().toString() == "riceball")
+			@Override
+			public void handle(AbstractGameObject riceBall, AbstractGameObject other)
 			{
-				fixtureB = contact.getFixtureA();
-				fixtureA = contact.getFixtureB();
+				level.riceBall.isJumping = false;
 			}
-			
-			if (fixtureA.getBody().getUserData().toString() == "dirt");
+		});
+
+		// bugs only start walking once they touched something
+		registerAll(EntityKind.BUG, new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject bug, AbstractGameObject other)
 			{
-				level.riceBall.isJumping = false;
+				((Bug) bug).grounded = true;
+				if (other.kind == EntityKind.BUG)
+					((Bug) other).grounded = true;
 			}
-			if (fixtureA.getBody().getUserData().toString() == "ricegrain")
+		});
+
+		register(EntityKind.RICEBALL, EntityKind.RICE_GRAIN, new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject riceBall, AbstractGameObject obj)
 			{
-				for (RiceGrain grain: level.ricegrains)
-				{
-					if (fixtureA.getBody().getUserData().equals(grain))
-					{
-						AudioManager.instance.play(Assets.instance.sounds.crunch);
-						worldController.removeFlagged.add(fixtureA.getBody());
-						grain.collected = true;
-						worldController.score += grain.getScore();
-					}
-				}
+				RiceGrain grain = (RiceGrain) obj;
+				if (grain.collected)
+					return;
+				AudioManager.instance.play(Assets.instance.sounds.crunch);
+				worldController.commands.deactivate(grain.body);
+				grain.collected = true;
+				worldController.score += grain.getScore();
 			}
-			if (fixtureA.getBody().getUserData().toString() == "nori")
+		});
+
+		register(EntityKind.RICEBALL, EntityKind.NORI, new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject riceBall, AbstractGameObject obj)
 			{
-				for (Nori nori : level.nori)
-				{
-					if (fixtureA.getBody().getUserData().equals(nori))
-					{
-						AudioManager.instance.play(Assets.instance.sounds.wrapper);
-						worldController.removeFlagged.add(fixtureA.getBody());
-						nori.collected = true;
-						worldController.score += nori.getScore();
-						level.riceBall.changeHealth(1);
-					}
-				}
+				Nori nori = (Nori) obj;
+				if (nori.collected)
+					return;
+				AudioManager.instance.play(Assets.instance.sounds.wrapper);
+				worldController.commands.deactivate(nori.body);
+				nori.collected = true;
+				worldController.score += nori.getScore();
+				level.riceBall.changeHealth(1);
 			}
-			if (fixtureA.getBody().getUserData().toString() == "gun")
+		});
+
+		register(EntityKind.RICEBALL, EntityKind.GUN, new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject riceBall, AbstractGameObject obj)
 			{
-				for (Gun gun : level.guns)
-				{
-					if (fixtureA.getBody().getUserData().equals(gun))
-					{
-						AudioManager.instance.play(Assets.instance.sounds.reload);
-						worldController.removeFlagged.add(fixtureA.getBody());
-						gun.collected = true;
-						worldController.score += gun.getScore();
-						level.riceBall.setGunPowerUp(gun.bullets);
-					}
-				}
+				Gun gun = (Gun) obj;
+				if (gun.collected)
+					return;
+				AudioManager.instance.play(Assets.instance.sounds.reload);
+				worldController.commands.deactivate(gun.body);
+				gun.collected = true;
+				worldController.score += gun.getScore();
+				level.riceBall.setGunPowerUp(gun.bullets);
 			}
-			if (fixtureA.getBody().getUserData().equals(level.waterOverlay))
+		});
+
+		register(EntityKind.RICEBALL, EntityKind.WATER, new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject riceBall, AbstractGameObject water)
 			{
 				worldController.inWater = true;
 			}
-			if (fixtureA.getBody().getUserData().equals(level.goal))
+		});
+
+		register(EntityKind.RICEBALL, EntityKind.GOAL, new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject riceBall, AbstractGameObject goal)
 			{
 				worldController.goalReached = true;
 				worldController.timeLeftGameOverDelay = Constants.TIME_DELAY_GAME_OVER;
 			}
-			if (fixtureA.getBody().getUserData().toString() == "bug")
+		});
+
+		register(EntityKind.RICEBALL, EntityKind.BUG, new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject riceBall, AbstractGameObject obj)
 			{
-				for (Bug bug : level.bugs)
-				{
-					if (fixtureA.getBody().getUserData().equals(bug))
-					{
-						AudioManager.instance.play(Assets.instance.sounds.oof);
-						worldController.removeFlagged.add(fixtureA.getBody());
-						bug.killed = true;
-						bug.dead();
-						level.riceBall.changeHealth(-1);
-					}
-				}
+				Bug bug = (Bug) obj;
+				if (bug.killed)
+					return;
+				AudioManager.instance.play(Assets.instance.sounds.oof);
+				worldController.commands.deactivate(bug.body);
+				bug.killed = true;
+				bug.dead();
+				level.riceBall.changeHealth(-1);
 			}
-		}
-		
-		if (fixtureA.getBody().getUserData().toString() == "bug")
-		{
-			Bug bug = (Bug) fixtureA.getBody().getUserData();
-			bug.grounded = true;
-		}
-		if (fixtureB.getBody().getUserData().toString() == "bug")
-		{
-			Bug bug = (Bug) fixtureB.getBody().getUserData();
-			bug.grounded = true;
-		}
-		
-		if (fixtureA.getBody().getUserData().toString() == "bullet")
+		});
+
+		register(EntityKind.BULLET, EntityKind.BUG, new ContactHandler()
 		{
-			if (fixtureB.getBody().getUserData().toString() == "bug")
+			@Override
+			public void handle(AbstractGameObject bullet, AbstractGameObject obj)
 			{
-				for (Bug bug : level.bugs)
+				Bug bug = (Bug) obj;
+				if (!bug.killed)
 				{
-					if (fixtureB.getBody().getUserData().equals(bug))
-					{
-						worldController.removeFlagged.add(fixtureB.getBody());
-						bug.killed = true;
-						bug.dead();
-						worldController.score += bug.getScore();
-					}
+					worldController.commands.deactivate(bug.body);
+					bug.killed = true;
+					bug.dead();
+					worldController.score += bug.getScore();
 				}
+				removeBullet((Bullet) bullet);
 			}
-			if (fixtureB.getBody().getUserData().toString() == "bug" || fixtureB.getBody().getUserData().toString() == "dirt" || fixtureB.getBody().getUserData().toString() == "water")
+		});
+
+		ContactHandler bulletHit = new ContactHandler()
+		{
+			@Override
+			public void handle(AbstractGameObject bullet, AbstractGameObject other)
 			{
-				for (Bullet bullet : level.bullets)
-				{
-					if (fixtureA.getBody().getUserData().equals(bullet))
-					{
-						worldController.removeFlagged.add(fixtureA.getBody());
-						bullet.onScreen = false;
-					}
-				}
+				removeBullet((Bullet) bullet);
 			}
+		};
+		register(EntityKind.BULLET, EntityKind.DIRT, bulletHit);
+		register(EntityKind.BULLET, EntityKind.WATER, bulletHit);
+	}
+
+	/**
+	 * Takes a bullet that hit something out of play.
+	 * @param bullet	The bullet.
+	 */
+	private void removeBullet(Bullet bullet)
+	{
+		if (!bullet.onScreen)
+			return;
+		// the body is kept for the next shot
+		worldController.commands.deactivate(bullet.body);
+		bullet.onScreen = false;
+	}
+
+	/**
+	 * Registers a handler for every pair that contains a kind.
+	 * @param kind		The kind.
+	 * @param handler	Gets the object of that kind first, the other object second.
+	 */
+	private void registerAll(EntityKind kind, ContactHandler handler)
+	{
+		for (EntityKind other : EntityKind.values())
+			register(kind, other, handler);
+	}
+
+	/**
+	 * Registers a handler for a pair of kinds, in both orders. If the pair already
+	 * has a handler the new one runs after it.
+	 * @param kindA		First kind.
+	 * @param kindB		Second kind.
+	 * @param handler	Gets the object of kindA first, the object of kindB second.
+	 */
+	private void register(EntityKind kindA, EntityKind kindB, ContactHandler handler)
+	{
+		put(kindA.ordinal(), kindB.ordinal(), handler, false);
+		if (kindA != kindB)
+			put(kindB.ordinal(), kindA.ordinal(), handler, true);
+	}
+
+	/**
+	 * Stores a handler in one cell of the dispatch table.
+	 */
+	private void put(int a, int b, ContactHandler handler, boolean reversed)
+	{
+		ContactHandler existing = handlers[a][b];
+		if (existing == null)
+		{
+			handlers[a][b] = handler;
+			swapped[a][b] = reversed;
 		}
-		if (fixtureB.getBody().getUserData().toString() == "bullet")
+		else
 		{
-			if (fixtureA.getBody().getUserData().toString() == "bug")
-			{
-				for (Bug bug : level.bugs)
-				{
-					if (fixtureA.getBody().getUserData().equals(bug))
-					{
-						worldController.removeFlagged.add(fixtureA.getBody());
-						bug.killed = true;
-						bug.dead();
-						worldController.score += bug.getScore();
-					}
-				}
-			}
-			//if (fixtureA.getBody().getUserData().toString() == "bug" || fixtureA.getBody().getUserData().toString() == "dirt" || fixtureA.getBody().getUserData().toString() == "water")
-			{
-				for (Bullet bullet : level.bullets)
-				{
-					if (fixtureB.getBody().getUserData().equals(bullet))
-					{
-						worldController.removeFlagged.add(fixtureB.getBody());
-						bullet.onScreen = false;
-					}
-				}
-			}
+			// keep the existing handler's order, the chain swaps for the new one if needed
+			handlers[a][b] = new ChainedHandler(existing, handler, reversed != swapped[a][b]);
 		}
+	}
+
+	/**
+	 * Runs the handler registered for the kinds of two objects.
+	 * @param a		User data of the first body.
+	 * @param b		User data of the second body.
+	 */
+	public void dispatch(Object a, Object b)
+	{
+		AbstractGameObject objA = (AbstractGameObject) a;
+		AbstractGameObject objB = (AbstractGameObject) b;
+		int kindA = objA.kind.ordinal();
+		int kindB = objB.kind.ordinal();
+		ContactHandler handler = handlers[kindA][kindB];
+		if (handler == null)
+			return;
+		if (swapped[kindA][kindB])
+			handler.handle(objB, objA);
+		else
+			handler.handle(objA, objB);
+	}
 
+	@Override
+	public void beginContact(Contact contact)
+	{
+		FrameProfiler.instance.begin(Phase.CONTACTS);
+		dispatch(contact.getFixtureA().getBody().getUserData(), contact.getFixtureB().getBody().getUserData());
+		FrameProfiler.instance.end(Phase.CONTACTS);
 	}
 
 	@Override
 	public void endContact(Contact contact)
 	{
-		
+
 	}
 
 	@Override
 	public void preSolve(Contact contact, Manifold oldManifold)
 	{
-		
+
 	}
 
 	@Override
 	public void postSolve(Contact contact, ContactImpulse impulse)
 	{
-		
+
 	}
-}
\ No newline at end of file
+}
@@ -29,7 +29,19 @@ public class Constants
 	public static final String SKIN_RUTTER_UI = "images/ricerampage-ui.json";
 
 	public static final String PREFERENCES = "rutter.prefs";
+	// Old high score text file, imported into the score log on first run
 	public static final String SCORES = "../core/assets/scores.txt";
+	// Log of every score entered
+	public static final String HIGH_SCORES = "../core/assets/scores.dat";
+	
+	// Input recorded with F9, played back with F10
+	public static final String INPUT_RECORDING = "../core/assets/recordings/last.rec";
+	
+	// Number of scores shown in the high score window
+	public static final int HIGH_SCORES_SHOWN = 10;
+	
+	// Longest name stored with a score, longer names are cut off
+	public static final int MAX_NAME_LENGTH = 24;
 	
 	
 	//Location of image file for level 01
@@ -38,6 +50,18 @@ public class Constants
 	//Amount of extra lives at level start
 	public static final int LIVES_START = 3;
 	
+	// Physics ticks per second of game time
+	public static final int PHYSICS_TICK_RATE = 60;
+	
+	// Most physics ticks run in one frame, time beyond that is dropped
+	public static final int MAX_PHYSICS_STEPS_PER_FRAME = 5;
+	
+	// Time per frame spent loading assets while a loading screen is shown, in milliseconds
+	public static final int LOADING_SCREEN_BUDGET_MILLIS = 15;
+	
+	// Time per frame spent loading the remaining assets in the background, in milliseconds
+	public static final int ASSET_STREAM_BUDGET_MILLIS = 4;
+	
 	// Delay after game over
 	public static final float TIME_DELAY_GAME_OVER = .5f;
 }
@@ -0,0 +1,252 @@
+package com.packetpub.libgdx.rutter.util;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * @author Kevin Rutter
+ * Measures where the time of each frame goes. Every phase of a frame is timed
+ * separately, and the frame times of the last few seconds are kept to work out
+ * percentiles. Phases may be nested (contacts run inside the physics step).
+ * Timing is skipped entirely while the profiler is disabled.
+ */
+public class FrameProfiler
+{
+	/**
+	 * The parts of a frame that are timed.
+	 */
+	public enum Phase
+	{
+		INPUT("input"),
+		LEVEL_UPDATE("update"),
+		PHYSICS_STEP("physics"),
+		CONTACTS("contacts"),
+		CULLING("culling"),
+		WORLD_RENDER("world"),
+		GUI_RENDER("gui");
+
+		private final String label;
+
+		private Phase(String label)
+		{
+			this.label = label;
+		}
+
+		/**
+		 * @return	Short name shown in the overlay.
+		 */
+		public String getLabel()
+		{
+			return label;
+		}
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+
+	// created after PHASES, the constructor sizes its arrays from it
+	public static final FrameProfiler instance = new FrameProfiler();
+
+	// number of frames the statistics are taken over
+	private static final int WINDOW = 240;
+	// how many frames pass between recalculating the statistics
+	private static final int REFRESH_FRAMES = 30;
+
+	public boolean enabled;
+
+	// time spent in each phase during the current frame
+	private final long[] phaseStart = new long[PHASES.length];
+	private final long[] phaseTime = new long[PHASES.length];
+
+	// frame times and phase times of the last frames, as ring buffers
+	private final long[] frameHistory = new long[WINDOW];
+	private final long[][] phaseHistory = new long[PHASES.length][WINDOW];
+	private final long[] sorted = new long[WINDOW];
+	private int next;
+	private int samples;
+	private long frameStart;
+	private int framesSinceRefresh;
+
+	// statistics as of the last refresh, in nanoseconds
+	private long p50;
+	private long p95;
+	private long p99;
+	private final long[] phaseAverage = new long[PHASES.length];
+	private int revision;
+
+	// totals since the last reset, for runs that are summed up at the end
+	private final long[] phaseTotal = new long[PHASES.length];
+	private long frameTotal;
+	private int frames;
+
+	// singleton: prevent instantiation from other classes
+	private FrameProfiler()
+	{
+	}
+
+	/**
+	 * Marks the start of a frame. The time since the previous start is recorded
+	 * as the length of the previous frame, together with its phase times.
+	 */
+	public void beginFrame()
+	{
+		if (!enabled)
+		{
+			frameStart = 0;
+			return;
+		}
+		long now = TimeUtils.nanoTime();
+		if (frameStart != 0)
+		{
+			frameHistory[next] = now - frameStart;
+			frameTotal += now - frameStart;
+			frames++;
+			for (int i = 0; i < PHASES.length; i++)
+			{
+				phaseHistory[i][next] = phaseTime[i];
+				phaseTotal[i] += phaseTime[i];
+			}
+			next = (next + 1) % WINDOW;
+			samples = Math.min(samples + 1, WINDOW);
+			if (++framesSinceRefresh >= REFRESH_FRAMES)
+				refresh();
+		}
+		Arrays.fill(phaseTime, 0);
+		frameStart = now;
+	}
+
+	/**
+	 * Starts timing a phase.
+	 * @param phase		The phase.
+	 */
+	public void begin(Phase phase)
+	{
+		if (enabled)
+			phaseStart[phase.ordinal()] = TimeUtils.nanoTime();
+	}
+
+	/**
+	 * Stops timing a phase. A phase can run several times a frame, the times add up.
+	 * @param phase		The phase.
+	 */
+	public void end(Phase phase)
+	{
+		if (enabled)
+			phaseTime[phase.ordinal()] += TimeUtils.nanoTime() - phaseStart[phase.ordinal()];
+	}
+
+	/**
+	 * Recalculates the percentiles and phase averages from the recorded frames.
+	 */
+	private void refresh()
+	{
+		framesSinceRefresh = 0;
+		System.arraycopy(frameHistory, 0, sorted, 0, samples);
+		Arrays.sort(sorted, 0, samples);
+		p50 = percentile(0.50f);
+		p95 = percentile(0.95f);
+		p99 = percentile(0.99f);
+		for (int i = 0; i < PHASES.length; i++)
+		{
+			long total = 0;
+			for (int j = 0; j < samples; j++)
+				total += phaseHistory[i][j];
+			phaseAverage[i] = total / samples;
+		}
+		revision++;
+	}
+
+	/**
+	 * @param fraction	The percentile, from 0 to 1.
+	 * @return			The frame time below which that fraction of the sorted frames lie.
+	 */
+	private long percentile(float fraction)
+	{
+		int index = (int)Math.ceil(fraction * samples) - 1;
+		return sorted[Math.max(0, Math.min(samples - 1, index))];
+	}
+
+	/**
+	 * @return	Median frame time in nanoseconds.
+	 */
+	public long getP50()
+	{
+		return p50;
+	}
+
+	/**
+	 * @return	95th percentile frame time in nanoseconds.
+	 */
+	public long getP95()
+	{
+		return p95;
+	}
+
+	/**
+	 * @return	99th percentile frame time in nanoseconds.
+	 */
+	public long getP99()
+	{
+		return p99;
+	}
+
+	/**
+	 * @param phase		The phase.
+	 * @return			Average time per frame spent in the phase, in nanoseconds.
+	 */
+	public long getAverage(Phase phase)
+	{
+		return phaseAverage[phase.ordinal()];
+	}
+
+	/**
+	 * @return	Goes up every time the statistics are recalculated, so a display knows when to redraw them.
+	 */
+	public int getRevision()
+	{
+		return revision;
+	}
+
+	/**
+	 * @param phase		The phase.
+	 * @return			Time spent in the phase over all frames since the last reset, in nanoseconds.
+	 */
+	public long getTotal(Phase phase)
+	{
+		return phaseTotal[phase.ordinal()];
+	}
+
+	/**
+	 * @return	Length of all frames since the last reset, in nanoseconds.
+	 */
+	public long getTotalFrameTime()
+	{
+		return frameTotal;
+	}
+
+	/**
+	 * @return	Number of frames recorded since the last reset.
+	 */
+	public int getFrameCount()
+	{
+		return frames;
+	}
+
+	/**
+	 * Forgets every recorded frame.
+	 */
+	public void reset()
+	{
+		samples = 0;
+		next = 0;
+		frameStart = 0;
+		framesSinceRefresh = 0;
+		p50 = p95 = p99 = 0;
+		Arrays.fill(phaseAverage, 0);
+		Arrays.fill(phaseTime, 0);
+		Arrays.fill(phaseTotal, 0);
+		frameTotal = 0;
+		frames = 0;
+		revision++;
+	}
+}
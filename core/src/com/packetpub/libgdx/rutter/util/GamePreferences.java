@@ -16,10 +16,14 @@ public class GamePreferences
 
 	public static final GamePreferences instance = new GamePreferences();
 
+	// saves of the preferences replace each other while they wait to be written
+	private static final String SAVE_KEY = "preferences";
+
 	public boolean sound, music;
 	public float volSound, volMusic;
 	public boolean showFpsCounter;
 
+	// guarded by itself: written on the I/O thread, read when loading
 	private Preferences prefs;
 
 	// singleton: prevents instantiation from other classes
@@ -33,25 +37,45 @@ public class GamePreferences
 	 */
 	public void load()
 	{
-		sound = prefs.getBoolean("sound", true);
-		music = prefs.getBoolean("music", true);
+		synchronized (prefs)
+		{
+			sound = prefs.getBoolean("sound", true);
+			music = prefs.getBoolean("music", true);
 
-		volMusic = com.badlogic.gdx.math.MathUtils.clamp(prefs.getFloat("volMusic", 0.5f), 0.0f, 1.0f);
-		volSound = com.badlogic.gdx.math.MathUtils.clamp(prefs.getFloat("volSound", 0.5f), 0.0f, 1.0f);
+			volMusic = com.badlogic.gdx.math.MathUtils.clamp(prefs.getFloat("volMusic", 0.5f), 0.0f, 1.0f);
+			volSound = com.badlogic.gdx.math.MathUtils.clamp(prefs.getFloat("volSound", 0.5f), 0.0f, 1.0f);
 
-		showFpsCounter = prefs.getBoolean("showFpsCounter", false);
+			showFpsCounter = prefs.getBoolean("showFpsCounter", false);
+		}
 	}
 
 	/**
-	 * Save settings of the game as set by user
+	 * Save settings of the game as set by user. The values are copied right away,
+	 * storing and writing them to disk happens in the background.
 	 */
 	public void save()
 	{
-		prefs.putBoolean("sound", sound);
-		prefs.putBoolean("music", music);
-		prefs.putFloat("volSound", volSound);
-		prefs.putFloat("volMusic", volMusic);
-		prefs.putBoolean("showFpsCounter", showFpsCounter);
-		prefs.flush();
+		final boolean sound = this.sound;
+		final boolean music = this.music;
+		final float volSound = this.volSound;
+		final float volMusic = this.volMusic;
+		final boolean showFpsCounter = this.showFpsCounter;
+		// Preferences isn't thread safe, so it is only changed on the I/O thread
+		IoService.instance.submit(SAVE_KEY, new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				synchronized (prefs)
+				{
+					prefs.putBoolean("sound", sound);
+					prefs.putBoolean("music", music);
+					prefs.putFloat("volSound", volSound);
+					prefs.putFloat("volMusic", volMusic);
+					prefs.putBoolean("showFpsCounter", showFpsCounter);
+					prefs.flush();
+				}
+			}
+		}, null);
 	}
 }
\ No newline at end of file
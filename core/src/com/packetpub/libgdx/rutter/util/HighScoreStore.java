@@ -0,0 +1,624 @@
+package com.packetpub.libgdx.rutter.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * @author Kevin Rutter
+ * Keeps every score ever entered, sorted from best to worst, and persists them
+ * as a binary append log. Each record carries a checksum, so a record that was
+ * cut off by a crash is dropped (and trimmed from the file) on the next load
+ * instead of corrupting the ones before it. New files are written to a temporary
+ * file and renamed into place, so they are either complete or not there at all.
+ * Disk writes run on the IoService thread; the sorted index is only touched on
+ * the thread that calls into the store.
+ *
+ * Log layout: an int MAGIC, then per score an int payload length, the payload
+ * (name as modified UTF-8, score as int) and the CRC32 of the payload.
+ */
+public class HighScoreStore
+{
+	private static final String TAG = HighScoreStore.class.getName();
+
+	public static final HighScoreStore instance = new HighScoreStore();
+
+	// "RSC1", marks the file as a score log of this version
+	private static final int MAGIC = 0x52534331;
+	private static final int HEADER_SIZE = 4;
+	private static final int INITIAL_CAPACITY = 64;
+
+	// scores from best to worst, equal scores in the order they were entered
+	private int[] scores = new int[INITIAL_CAPACITY];
+	private String[] names = new String[INITIAL_CAPACITY];
+	private int size;
+	private boolean loaded;
+	// set when the file is something else than a score log, it is never written to then
+	private boolean foreign;
+	// store reading the log on the I/O thread, until its scores are taken over
+	private HighScoreStore background;
+
+	private final File file;
+	private final File legacyFile;
+
+	// the game's store
+	private HighScoreStore()
+	{
+		this(new File(Constants.HIGH_SCORES), new File(Constants.SCORES));
+	}
+
+	/**
+	 * Constructor for a store kept somewhere else than the game's, e.g. for tools.
+	 * @param file			The score log.
+	 * @param legacyFile	Text file imported if the log doesn't exist yet, may be null.
+	 */
+	public HighScoreStore(File file, File legacyFile)
+	{
+		this.file = file;
+		this.legacyFile = legacyFile;
+	}
+
+	/**
+	 * Reads the score log. The first time, the scores of the old text file are
+	 * imported into a new log. Does nothing if the scores were already loaded.
+	 */
+	public void load()
+	{
+		if (loaded)
+			return;
+		if (background != null)
+		{
+			// reads the log right here if the I/O thread hasn't started on it yet
+			HighScoreStore reader = background;
+			synchronized (reader)
+			{
+				reader.load();
+			}
+			takeOver(reader);
+			return;
+		}
+		loaded = true;
+		if (file.exists())
+			readLog();
+		else if (legacyFile != null && legacyFile.exists())
+			importLegacy();
+	}
+
+	/**
+	 * Starts reading the score log on the I/O thread, the scores are taken over on
+	 * the render thread once it's done. Calling anything else on the store before
+	 * then waits for the log instead. Does nothing if the scores were already loaded.
+	 */
+	public void loadInBackground()
+	{
+		if (loaded || background != null)
+			return;
+		final HighScoreStore reader = new HighScoreStore(file, legacyFile);
+		background = reader;
+		IoService.instance.submit(null, new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				synchronized (reader)
+				{
+					reader.load();
+				}
+			}
+		}, new IoService.Callback()
+		{
+			@Override
+			public void done(boolean succeeded)
+			{
+				takeOver(reader);
+			}
+		});
+	}
+
+	/**
+	 * Makes the scores of the store that read the log in the background this store's.
+	 * Does nothing if they were taken over already.
+	 */
+	private void takeOver(HighScoreStore reader)
+	{
+		if (background != reader)
+			return;
+		background = null;
+		loaded = true;
+		scores = reader.scores;
+		names = reader.names;
+		size = reader.size;
+		foreign = reader.foreign;
+		Gdx.app.debug(TAG, "Took over " + size + " scores read in the background");
+	}
+
+	/**
+	 * Adds a score. The index is updated right away, the record is appended to the
+	 * log in the background.
+	 * @param name		Name of the player, null counts as no name. Cut off after
+	 * 					Constants.MAX_NAME_LENGTH characters.
+	 * @param score		The score.
+	 * @return			Rank of the new score, 1 is the best.
+	 */
+	public int add(String name, int score)
+	{
+		return add(name, score, null);
+	}
+
+	/**
+	 * Adds a score. The index is updated right away, the record is appended to the
+	 * log in the background.
+	 * @param name		Name of the player, null counts as no name. Cut off after
+	 * 					Constants.MAX_NAME_LENGTH characters.
+	 * @param score		The score.
+	 * @param saved		Gets told on the render thread whether the score reached the log, may be null.
+	 * @return			Rank of the new score, 1 is the best.
+	 */
+	public int add(String name, int score, IoService.Callback saved)
+	{
+		load();
+		name = clampName(name);
+		int index = insert(name, score);
+		if (foreign)
+		{
+			Gdx.app.error(TAG, "Not saving score, " + file + " is not a score log");
+			if (saved != null)
+				saved.done(false);
+			return index + 1;
+		}
+		final byte[] record = encodeRecord(name, score);
+		// records are never coalesced, every one of them has to reach the log
+		IoService.instance.submit(null, new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					appendRecord(record);
+				}
+				catch (IOException e)
+				{
+					throw new RuntimeException("Could not save score to " + file, e);
+				}
+			}
+		}, saved);
+		return index + 1;
+	}
+
+	/**
+	 * @return	Number of scores stored.
+	 */
+	public int size()
+	{
+		load();
+		return size;
+	}
+
+	/**
+	 * @param index		Position in the list, 0 is the best score.
+	 * @return			The score at that position.
+	 */
+	public int getScore(int index)
+	{
+		checkIndex(index);
+		return scores[index];
+	}
+
+	/**
+	 * @param index		Position in the list, 0 is the best score.
+	 * @return			Name of the player with the score at that position.
+	 */
+	public String getName(int index)
+	{
+		checkIndex(index);
+		return names[index];
+	}
+
+	/**
+	 * Copies the best scores. Asking for more scores than are stored copies all of them.
+	 * @param count			How many scores to copy.
+	 * @param outScores		Receives the scores, best first.
+	 * @param outNames		Receives the names, may be null.
+	 * @return				Number of scores copied.
+	 */
+	public int getTop(int count, int[] outScores, String[] outNames)
+	{
+		load();
+		int n = Math.min(count, size);
+		System.arraycopy(scores, 0, outScores, 0, n);
+		if (outNames != null)
+			System.arraycopy(names, 0, outNames, 0, n);
+		return n;
+	}
+
+	/**
+	 * @param score		A score, stored or not.
+	 * @return			The rank the score would get if it was entered now, 1 is the best.
+	 */
+	public int getRank(int score)
+	{
+		load();
+		return insertionPoint(score) + 1;
+	}
+
+	/**
+	 * @param score		A score.
+	 * @param count		Length of the list, e.g. 10 for a top ten.
+	 * @return			If the score would make it onto a list of the best scores.
+	 */
+	public boolean isTopScore(int score, int count)
+	{
+		return getRank(score) <= count;
+	}
+
+	/**
+	 * @return	The name as it is stored: never null, at most Constants.MAX_NAME_LENGTH characters.
+	 */
+	private static String clampName(String name)
+	{
+		if (name == null)
+			return "";
+		if (name.length() > Constants.MAX_NAME_LENGTH)
+			return name.substring(0, Constants.MAX_NAME_LENGTH);
+		return name;
+	}
+
+	/**
+	 * Throws if an index is outside the stored scores.
+	 */
+	private void checkIndex(int index)
+	{
+		load();
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+	}
+
+	/**
+	 * Finds where a score goes: after every score that is at least as high.
+	 * @param score		The score.
+	 * @return			Index of the first stored score that is lower.
+	 */
+	private int insertionPoint(int score)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (scores[mid] >= score)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Puts a score into the sorted index.
+	 * @return	Index the score was put at.
+	 */
+	private int insert(String name, int score)
+	{
+		ensureCapacity(size + 1);
+		int index = insertionPoint(score);
+		System.arraycopy(scores, index, scores, index + 1, size - index);
+		System.arraycopy(names, index, names, index + 1, size - index);
+		scores[index] = score;
+		names[index] = name;
+		size++;
+		return index;
+	}
+
+	/**
+	 * Adds a score at the end of the index without keeping it sorted, call sort afterwards.
+	 */
+	private void append(String name, int score)
+	{
+		ensureCapacity(size + 1);
+		scores[size] = score;
+		names[size] = name;
+		size++;
+	}
+
+	/**
+	 * Sorts the whole index once, for after many scores were appended.
+	 * Equal scores keep the order they were appended in.
+	 */
+	private void sort()
+	{
+		// score in the high half, reversed entry order in the low half, so sorting
+		// ascending and reading backwards puts equal scores oldest first
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = ((long)scores[i] << 32) | (0xffffffffL - i);
+		Arrays.sort(keys);
+		String[] sortedNames = new String[names.length];
+		for (int i = 0; i < size; i++)
+		{
+			long key = keys[size - 1 - i];
+			scores[i] = (int)(key >> 32);
+			sortedNames[i] = names[(int)(0xffffffffL - (key & 0xffffffffL))];
+		}
+		names = sortedNames;
+	}
+
+	/**
+	 * Grows the index so it holds at least a number of scores.
+	 */
+	private void ensureCapacity(int capacity)
+	{
+		if (capacity <= scores.length)
+			return;
+		capacity = Math.max(capacity, scores.length * 2);
+		scores = Arrays.copyOf(scores, capacity);
+		names = Arrays.copyOf(names, capacity);
+	}
+
+	/**
+	 * Reads every intact record of the log into the index. A damaged or
+	 * incomplete record ends the log, the file is cut back to the last good record.
+	 */
+	private void readLog()
+	{
+		long length = file.length();
+		long good = 0;
+		CRC32 crc = new CRC32();
+		DataInputStream in = null;
+		try
+		{
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != MAGIC)
+			{
+				// leave a file we don't understand alone
+				Gdx.app.error(TAG, "Not a score log: " + file);
+				foreign = true;
+				return;
+			}
+			good = HEADER_SIZE;
+			byte[] payload = new byte[256];
+			while (good < length)
+			{
+				int payloadLength = in.readInt();
+				// a length running past the end of the file can only come from a damaged field
+				if (payloadLength <= 0 || payloadLength > length - good - 8)
+					break;
+				if (payloadLength > payload.length)
+					payload = new byte[payloadLength];
+				in.readFully(payload, 0, payloadLength);
+				int checksum = in.readInt();
+				crc.reset();
+				crc.update(payload, 0, payloadLength);
+				if (checksum != (int)crc.getValue())
+					break;
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload, 0, payloadLength));
+				String name = record.readUTF();
+				append(name, record.readInt());
+				good += payloadLength + 8;
+			}
+		}
+		catch (EOFException e)
+		{
+			// the last record was cut off
+		}
+		catch (IOException e)
+		{
+			Gdx.app.error(TAG, "Could not read " + file, e);
+			return;
+		}
+		finally
+		{
+			close(in);
+			sort();
+		}
+		if (good < length)
+		{
+			Gdx.app.error(TAG, "Dropping " + (length - good) + " damaged bytes at the end of " + file);
+			truncate(good);
+		}
+		Gdx.app.debug(TAG, "Loaded " + size + " scores");
+	}
+
+	/**
+	 * Reads the name and score lines of the old text file and writes them into a new log.
+	 */
+	private void importLegacy()
+	{
+		BufferedReader reader = null;
+		try
+		{
+			reader = new BufferedReader(new FileReader(legacyFile));
+			String name;
+			while ((name = reader.readLine()) != null)
+			{
+				String score = reader.readLine();
+				if (score == null)
+					break;
+				append(clampName(name), Integer.parseInt(score.trim()));
+			}
+		}
+		catch (IOException e)
+		{
+			Gdx.app.error(TAG, "Could not read " + legacyFile, e);
+		}
+		catch (NumberFormatException e)
+		{
+			Gdx.app.error(TAG, "Stopped importing " + legacyFile + " at a bad score", e);
+		}
+		finally
+		{
+			close(reader);
+			sort();
+		}
+
+		// the records are in rank order, so equal scores keep their order when read back
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try
+		{
+			out.writeInt(MAGIC);
+			for (int i = 0; i < size; i++)
+				out.write(encodeRecord(names[i], scores[i]));
+		}
+		catch (IOException e)
+		{
+			// writing to memory does not fail
+			throw new IllegalStateException(e);
+		}
+		final byte[] contents = bytes.toByteArray();
+		IoService.instance.submit(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					replace(contents);
+				}
+				catch (IOException e)
+				{
+					throw new RuntimeException("Could not save scores to " + file, e);
+				}
+			}
+		});
+		Gdx.app.debug(TAG, "Imported " + size + " scores from " + legacyFile);
+	}
+
+	/**
+	 * @return	The bytes of one log record.
+	 */
+	private static byte[] encodeRecord(String name, int score)
+	{
+		try
+		{
+			ByteArrayOutputStream payload = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(payload);
+			out.writeUTF(name);
+			out.writeInt(score);
+			CRC32 crc = new CRC32();
+			crc.update(payload.toByteArray());
+
+			ByteArrayOutputStream record = new ByteArrayOutputStream(payload.size() + 8);
+			out = new DataOutputStream(record);
+			out.writeInt(payload.size());
+			payload.writeTo(out);
+			out.writeInt((int)crc.getValue());
+			return record.toByteArray();
+		}
+		catch (IOException e)
+		{
+			// writing to memory does not fail
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Appends a record to the log and waits until it reached the disk. A log
+	 * without a complete header is written anew with just this record.
+	 * Runs on the I/O thread.
+	 */
+	private void appendRecord(byte[] record) throws IOException
+	{
+		if (file.length() < HEADER_SIZE)
+		{
+			// missing, or cut off inside the header so it holds no records
+			byte[] contents = new byte[HEADER_SIZE + record.length];
+			contents[0] = (byte)(MAGIC >>> 24);
+			contents[1] = (byte)(MAGIC >>> 16);
+			contents[2] = (byte)(MAGIC >>> 8);
+			contents[3] = (byte)MAGIC;
+			System.arraycopy(record, 0, contents, HEADER_SIZE, record.length);
+			replace(contents);
+			return;
+		}
+		FileOutputStream out = null;
+		try
+		{
+			out = new FileOutputStream(file, true);
+			out.write(record);
+			out.getFD().sync();
+		}
+		finally
+		{
+			close(out);
+		}
+	}
+
+	/**
+	 * Writes a whole log to a temporary file and renames it over the log.
+	 * Runs on the I/O thread.
+	 */
+	private void replace(byte[] contents) throws IOException
+	{
+		File temp = new File(file.getPath() + ".tmp");
+		FileOutputStream out = null;
+		try
+		{
+			out = new FileOutputStream(temp);
+			out.write(contents);
+			out.getFD().sync();
+			out.close();
+			out = null;
+			// renaming over an existing file fails on some systems
+			if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file)))
+				throw new IOException("Could not rename " + temp + " to " + file);
+		}
+		finally
+		{
+			close(out);
+		}
+	}
+
+	/**
+	 * Cuts the log back to a length.
+	 */
+	private void truncate(long length)
+	{
+		RandomAccessFile raf = null;
+		try
+		{
+			raf = new RandomAccessFile(file, "rw");
+			raf.setLength(length);
+		}
+		catch (IOException e)
+		{
+			Gdx.app.error(TAG, "Could not repair " + file, e);
+		}
+		finally
+		{
+			close(raf);
+		}
+	}
+
+	/**
+	 * Closes a stream, ignoring errors.
+	 */
+	private static void close(Closeable closeable)
+	{
+		if (closeable == null)
+			return;
+		try
+		{
+			closeable.close();
+		}
+		catch (IOException e)
+		{
+			// nothing left to do with it
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package com.packetpub.libgdx.rutter.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.badlogic.gdx.utils.ByteArray;
+
+/**
+ * @author Kevin Rutter
+ * The input of a play session, one byte per physics tick. Together with the
+ * random seed and the level it started from, replaying the bytes tick by tick
+ * plays the session again exactly, since the game only reads input on ticks.
+ *
+ * File layout: an int MAGIC, the seed (long), the tick rate (int), the level
+ * (UTF), the number of ticks (int), then runs of equal input as a byte with the
+ * input and a variable length count.
+ */
+public class InputRecording
+{
+	// bits of the input of one tick
+	public static final int LEFT = 1;
+	public static final int RIGHT = 1 << 1;
+	public static final int JUMP = 1 << 2;
+	public static final int FIRE = 1 << 3;
+
+	// "RIN1", marks the file as an input recording of this version
+	private static final int MAGIC = 0x52494e31;
+	// more ticks than this can only come from a damaged count, a day and a half at 60 ticks per second
+	private static final int MAX_TICKS = 8 * 1024 * 1024;
+
+	private final long seed;
+	private final int tickRate;
+	private final String level;
+	private final ByteArray ticks;
+
+	/**
+	 * Constructor for an empty recording.
+	 * @param seed		Seed the random generator was set to before the level was built.
+	 * @param tickRate	Physics ticks per second the session ran at.
+	 * @param level		The level the session played.
+	 */
+	public InputRecording(long seed, int tickRate, String level)
+	{
+		this(seed, tickRate, level, new ByteArray(Constants.PHYSICS_TICK_RATE * 60));
+	}
+
+	private InputRecording(long seed, int tickRate, String level, ByteArray ticks)
+	{
+		this.seed = seed;
+		this.tickRate = tickRate;
+		this.level = level;
+		this.ticks = ticks;
+	}
+
+	/**
+	 * Packs the input of one tick into its bits.
+	 * @param moveDirection		-1 for left, 1 for right, 0 for standing still.
+	 * @param jump				If jump was pressed.
+	 * @param fire				If fire was pressed.
+	 * @return					The input.
+	 */
+	public static int pack(int moveDirection, boolean jump, boolean fire)
+	{
+		int input = 0;
+		if (moveDirection < 0)
+			input |= LEFT;
+		else if (moveDirection > 0)
+			input |= RIGHT;
+		if (jump)
+			input |= JUMP;
+		if (fire)
+			input |= FIRE;
+		return input;
+	}
+
+	/**
+	 * Adds the input of the next tick.
+	 * @param input		The input bits.
+	 */
+	public void add(int input)
+	{
+		ticks.add((byte)input);
+	}
+
+	/**
+	 * @param tick	Index of the tick, 0 is the first tick of the session.
+	 * @return		The input bits of the tick.
+	 */
+	public int get(int tick)
+	{
+		return ticks.get(tick);
+	}
+
+	/**
+	 * @return	Number of ticks recorded.
+	 */
+	public int size()
+	{
+		return ticks.size;
+	}
+
+	/**
+	 * @return	Seed the random generator was set to before the level was built.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * @return	Physics ticks per second the session ran at.
+	 */
+	public int getTickRate()
+	{
+		return tickRate;
+	}
+
+	/**
+	 * @return	The level the session played.
+	 */
+	public String getLevel()
+	{
+		return level;
+	}
+
+	/**
+	 * @return	A copy that doesn't change when more ticks are added to this one, e.g. to save it in the background.
+	 */
+	public InputRecording copy()
+	{
+		ByteArray copy = new ByteArray(ticks.size);
+		copy.addAll(ticks);
+		return new InputRecording(seed, tickRate, level, copy);
+	}
+
+	/**
+	 * Writes the recording to a file.
+	 * @param file	The file.
+	 * @throws IOException	If the file can't be written.
+	 */
+	public void save(File file) throws IOException
+	{
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (dir != null && !dir.exists())
+			dir.mkdirs();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeLong(seed);
+			out.writeInt(tickRate);
+			out.writeUTF(level);
+			out.writeInt(ticks.size);
+			int i = 0;
+			while (i < ticks.size)
+			{
+				byte input = ticks.get(i);
+				int run = 1;
+				while (i + run < ticks.size && ticks.get(i + run) == input)
+					run++;
+				out.writeByte(input);
+				writeVarInt(out, run);
+				i += run;
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a recording from a file.
+	 * @param file	The file.
+	 * @return		The recording.
+	 * @throws IOException	If the file can't be read or isn't a recording.
+	 */
+	public static InputRecording load(File file) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try
+		{
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not an input recording: " + file);
+			long seed = in.readLong();
+			int tickRate = in.readInt();
+			String level = in.readUTF();
+			int count = in.readInt();
+			if (tickRate <= 0 || count < 0 || count > MAX_TICKS)
+				throw new IOException("Damaged input recording: " + file);
+			ByteArray ticks = new ByteArray(count);
+			while (ticks.size < count)
+			{
+				byte input = in.readByte();
+				int run = readVarInt(in);
+				if (run <= 0 || ticks.size + run > count)
+					throw new IOException("Damaged input recording: " + file);
+				for (int i = 0; i < run; i++)
+					ticks.add(input);
+			}
+			return new InputRecording(seed, tickRate, level, ticks);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes a positive int in 7 bit groups, most runs fit in one byte.
+	 */
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException
+	{
+		while ((value & ~0x7f) != 0)
+		{
+			out.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Reads an int written by writeVarInt.
+	 */
+	private static int readVarInt(DataInputStream in) throws IOException
+	{
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7)
+		{
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Bad run length");
+	}
+}
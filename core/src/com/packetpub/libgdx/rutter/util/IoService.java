@@ -0,0 +1,201 @@
+package com.packetpub.libgdx.rutter.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * @author Kevin Rutter
+ * Runs disk writes on one background thread, so the game never waits for the disk.
+ * Jobs run one at a time in the order they were submitted. A job submitted with a
+ * key replaces a job with the same key that hasn't started yet, so saving the same
+ * thing many times in a row (dragging a volume slider) only writes it once or twice.
+ * Completion is reported on the render thread through Gdx.app.postRunnable.
+ */
+public class IoService
+{
+	private static final String TAG = IoService.class.getName();
+
+	public static final IoService instance = new IoService();
+
+	// longest time dispose waits for queued jobs, in seconds
+	private static final int SHUTDOWN_TIMEOUT = 5;
+
+	/**
+	 * Gets told on the render thread that a job finished.
+	 */
+	public interface Callback
+	{
+		/**
+		 * @param succeeded		False if the job threw an exception.
+		 */
+		void done(boolean succeeded);
+	}
+
+	/**
+	 * A job waiting to run, with its callback and the callbacks of the jobs it replaced.
+	 */
+	private static class Job
+	{
+		Runnable work;
+		final ArrayList<Callback> callbacks = new ArrayList<Callback>(1);
+
+		Job(Runnable work)
+		{
+			this.work = work;
+		}
+	}
+
+	// keyed jobs that were submitted but haven't started, guarded by itself
+	private final Map<String, Job> pending = new HashMap<String, Job>();
+	private ExecutorService executor;
+
+	// number of jobs that were dropped because a newer one replaced them
+	private int coalesced;
+
+	// singleton: prevent instantiation from other classes
+	private IoService()
+	{
+	}
+
+	/**
+	 * Queues a job.
+	 * @param work	The job, runs on the I/O thread.
+	 */
+	public void submit(Runnable work)
+	{
+		submit(null, work, null);
+	}
+
+	/**
+	 * Queues a job, replacing the waiting job with the same key.
+	 * @param key		Identifies what the job writes, null if it must never be replaced.
+	 * @param work		The job, runs on the I/O thread.
+	 * @param callback	Gets called on the render thread once the job ran, may be null.
+	 * 					Callbacks of replaced jobs are called when the job that replaced them ran.
+	 */
+	public synchronized void submit(final String key, Runnable work, Callback callback)
+	{
+		if (key != null)
+		{
+			synchronized (pending)
+			{
+				Job waiting = pending.get(key);
+				if (waiting != null)
+				{
+					// the waiting job already has a spot in the queue, it does the new work instead
+					waiting.work = work;
+					if (callback != null)
+						waiting.callbacks.add(callback);
+					coalesced++;
+					return;
+				}
+			}
+		}
+		final Job job = new Job(work);
+		if (callback != null)
+			job.callbacks.add(callback);
+		if (key != null)
+		{
+			synchronized (pending)
+			{
+				pending.put(key, job);
+			}
+		}
+		getExecutor().execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				if (key != null)
+				{
+					// once it's out of the map the job can't be replaced anymore
+					synchronized (pending)
+					{
+						pending.remove(key);
+					}
+				}
+				execute(job);
+			}
+		});
+	}
+
+	/**
+	 * Runs a job on the I/O thread and reports back.
+	 */
+	private void execute(final Job job)
+	{
+		boolean succeeded = true;
+		try
+		{
+			job.work.run();
+		}
+		catch (RuntimeException e)
+		{
+			succeeded = false;
+			Gdx.app.error(TAG, "I/O job failed", e);
+		}
+		if (job.callbacks.isEmpty())
+			return;
+		final boolean result = succeeded;
+		Gdx.app.postRunnable(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				// oldest first, the order they were submitted in
+				for (int i = 0; i < job.callbacks.size(); i++)
+					job.callbacks.get(i).done(result);
+			}
+		});
+	}
+
+	/**
+	 * Runs the queued jobs and stops the I/O thread. Jobs submitted afterwards start a new one.
+	 * Called when the game closes, so nothing that was saved gets lost.
+	 */
+	public synchronized void dispose()
+	{
+		if (executor == null)
+			return;
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS))
+				Gdx.app.error(TAG, "Gave up waiting for queued writes");
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		executor = null;
+		Gdx.app.debug(TAG, coalesced + " writes were replaced by newer ones before they ran");
+	}
+
+	/**
+	 * @return	The executor running the jobs, started when first needed.
+	 */
+	private ExecutorService getExecutor()
+	{
+		if (executor == null)
+		{
+			executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable r)
+				{
+					Thread thread = new Thread(r, "io");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+}
@@ -0,0 +1,329 @@
+package com.packetpub.libgdx.rutter.util;
+
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.packetpub.libgdx.rutter.game.objects.AbstractGameObject;
+
+/**
+ * Uniform grid over the level that remembers which objects overlap each cell,
+ * so finding the objects in an area only looks at the cells the area covers
+ * instead of every object in the level. Objects that move are kept in the
+ * right cells by calling update after they move, which does nothing unless
+ * the object crossed into another cell.
+ * Queries share scratch space, so a visitor must not start another query.
+ *
+ * @author Kevin Rutter
+ */
+public class SpatialGrid
+{
+	/**
+	 * Gets called for each object found by a query.
+	 */
+	public interface Visitor
+	{
+		/**
+		 * @param obj	An object overlapping the queried area.
+		 */
+		void visit(AbstractGameObject obj);
+	}
+
+	/**
+	 * The range of cells an object was added to, and where it is in the list of objects.
+	 */
+	private static class CellRange
+	{
+		int minX;
+		int minY;
+		int maxX;
+		int maxY;
+		int index;
+	}
+
+	private final float cellSize;
+
+	// objects overlapping each cell, keyed by the packed cell coordinates
+	private final IntMap<Array<AbstractGameObject>> cells = new IntMap<Array<AbstractGameObject>>();
+	// every object in the grid and the cells it is in
+	private final ObjectMap<AbstractGameObject, CellRange> ranges = new ObjectMap<AbstractGameObject, CellRange>();
+	private final Array<AbstractGameObject> objects = new Array<AbstractGameObject>();
+
+	// scratch space for queries, so queries don't allocate
+	private final ObjectSet<AbstractGameObject> found = new ObjectSet<AbstractGameObject>();
+	private final Rectangle bounds = new Rectangle();
+	private final Rectangle area = new Rectangle();
+	private final Circle circle = new Circle();
+	private boolean circular;
+	private Array<AbstractGameObject> collectInto;
+	private final Visitor collector = new Visitor()
+	{
+		@Override
+		public void visit(AbstractGameObject obj)
+		{
+			collectInto.add(obj);
+		}
+	};
+
+	/**
+	 * Constructor for SpatialGrid.
+	 * @param cellSize	Width and height of a cell in meters.
+	 */
+	public SpatialGrid(float cellSize)
+	{
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Adds an object to every cell its bounds overlap. Adding an object
+	 * that is already in the grid only updates its cells.
+	 * @param obj	The object.
+	 */
+	public void add(AbstractGameObject obj)
+	{
+		if (ranges.containsKey(obj))
+		{
+			update(obj);
+			return;
+		}
+		CellRange range = new CellRange();
+		setRange(obj, range);
+		range.index = objects.size;
+		ranges.put(obj, range);
+		objects.add(obj);
+		insert(obj, range);
+	}
+
+	/**
+	 * Moves an object to the cells it overlaps now, call after the object moved.
+	 * Objects that are not in the grid are ignored.
+	 * @param obj	The object.
+	 */
+	public void update(AbstractGameObject obj)
+	{
+		CellRange range = ranges.get(obj);
+		if (range == null)
+			return;
+		int minX = range.minX;
+		int minY = range.minY;
+		int maxX = range.maxX;
+		int maxY = range.maxY;
+		setRange(obj, range);
+		if (minX == range.minX && minY == range.minY && maxX == range.maxX && maxY == range.maxY)
+			return;
+		erase(obj, minX, minY, maxX, maxY);
+		insert(obj, range);
+	}
+
+	/**
+	 * Takes an object out of the grid.
+	 * @param obj	The object.
+	 */
+	public void remove(AbstractGameObject obj)
+	{
+		CellRange range = ranges.remove(obj);
+		if (range == null)
+			return;
+		// the last object takes the removed one's place
+		AbstractGameObject last = objects.pop();
+		if (last != obj)
+		{
+			objects.set(range.index, last);
+			ranges.get(last).index = range.index;
+		}
+		erase(obj, range.minX, range.minY, range.maxX, range.maxY);
+	}
+
+	/**
+	 * @param obj	The object.
+	 * @return		If the object is in the grid.
+	 */
+	public boolean contains(AbstractGameObject obj)
+	{
+		return ranges.containsKey(obj);
+	}
+
+	/**
+	 * @return	Every object in the grid, in no particular order. Must not be modified.
+	 */
+	public Array<AbstractGameObject> getObjects()
+	{
+		return objects;
+	}
+
+	/**
+	 * @return	Number of objects in the grid.
+	 */
+	public int size()
+	{
+		return objects.size;
+	}
+
+	/**
+	 * Removes every object from the grid.
+	 */
+	public void clear()
+	{
+		cells.clear();
+		ranges.clear();
+		objects.clear();
+	}
+
+	/**
+	 * Finds the objects whose bounds overlap an area. Each object is reported once,
+	 * even if it spans several cells.
+	 * @param area	The area in world units.
+	 * @param out	Receives the objects, it is not cleared first.
+	 */
+	public void query(Rectangle area, Array<AbstractGameObject> out)
+	{
+		collectInto = out;
+		forEach(area, collector);
+		collectInto = null;
+	}
+
+	/**
+	 * Finds the objects whose bounds come within a distance of a point.
+	 * @param x			X of the point.
+	 * @param y			Y of the point.
+	 * @param radius	The distance in meters.
+	 * @param out		Receives the objects, it is not cleared first.
+	 */
+	public void queryRadius(float x, float y, float radius, Array<AbstractGameObject> out)
+	{
+		collectInto = out;
+		forEachInRadius(x, y, radius, collector);
+		collectInto = null;
+	}
+
+	/**
+	 * Visits the objects whose bounds overlap an area, each object once.
+	 * @param area		The area in world units.
+	 * @param visitor	Gets called for each object.
+	 */
+	public void forEach(Rectangle area, Visitor visitor)
+	{
+		this.area.set(area);
+		circular = false;
+		visit(visitor);
+	}
+
+	/**
+	 * Visits the objects whose bounds come within a distance of a point, each object once.
+	 * @param x			X of the point.
+	 * @param y			Y of the point.
+	 * @param radius	The distance in meters.
+	 * @param visitor	Gets called for each object.
+	 */
+	public void forEachInRadius(float x, float y, float radius, Visitor visitor)
+	{
+		area.set(x - radius, y - radius, radius * 2, radius * 2);
+		circle.set(x, y, radius);
+		circular = true;
+		visit(visitor);
+	}
+
+	/**
+	 * Visits the objects in the cells under the current query area that really overlap it.
+	 */
+	private void visit(Visitor visitor)
+	{
+		found.clear();
+		int minX = cell(area.x);
+		int minY = cell(area.y);
+		int maxX = cell(area.x + area.width);
+		int maxY = cell(area.y + area.height);
+		for (int x = minX; x <= maxX; x++)
+		{
+			for (int y = minY; y <= maxY; y++)
+			{
+				Array<AbstractGameObject> cell = cells.get(key(x, y));
+				if (cell == null)
+					continue;
+				for (int i = 0; i < cell.size; i++)
+				{
+					AbstractGameObject obj = cell.get(i);
+					if (found.contains(obj))
+						continue;
+					obj.getBounds(bounds);
+					boolean overlaps = circular ? Intersector.overlaps(circle, bounds) : bounds.overlaps(area);
+					if (overlaps)
+					{
+						found.add(obj);
+						visitor.visit(obj);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stores the cells an object's current bounds overlap.
+	 */
+	private void setRange(AbstractGameObject obj, CellRange range)
+	{
+		obj.getBounds(bounds);
+		range.minX = cell(bounds.x);
+		range.minY = cell(bounds.y);
+		range.maxX = cell(bounds.x + bounds.width);
+		range.maxY = cell(bounds.y + bounds.height);
+	}
+
+	/**
+	 * Adds an object to a range of cells.
+	 */
+	private void insert(AbstractGameObject obj, CellRange range)
+	{
+		for (int x = range.minX; x <= range.maxX; x++)
+		{
+			for (int y = range.minY; y <= range.maxY; y++)
+			{
+				int key = key(x, y);
+				Array<AbstractGameObject> cell = cells.get(key);
+				if (cell == null)
+				{
+					cell = new Array<AbstractGameObject>(false, 8);
+					cells.put(key, cell);
+				}
+				cell.add(obj);
+			}
+		}
+	}
+
+	/**
+	 * Removes an object from a range of cells. Emptied cells are kept for reuse.
+	 */
+	private void erase(AbstractGameObject obj, int minX, int minY, int maxX, int maxY)
+	{
+		for (int x = minX; x <= maxX; x++)
+		{
+			for (int y = minY; y <= maxY; y++)
+			{
+				Array<AbstractGameObject> cell = cells.get(key(x, y));
+				if (cell != null)
+					cell.removeValue(obj, true);
+			}
+		}
+	}
+
+	/**
+	 * @param coordinate	A world coordinate.
+	 * @return				Index of the cell containing it.
+	 */
+	private int cell(float coordinate)
+	{
+		return MathUtils.floor(coordinate / cellSize);
+	}
+
+	/**
+	 * Packs cell coordinates into one key, 16 bits each.
+	 */
+	private static int key(int x, int y)
+	{
+		return (x << 16) | (y & 0xffff);
+	}
+}
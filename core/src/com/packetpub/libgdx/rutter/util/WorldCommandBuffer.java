@@ -0,0 +1,168 @@
+package com.packetpub.libgdx.rutter.util;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Collects changes to the Box2D world that can't be made while it is stepping
+ * (contact callbacks run inside World.step) and applies them together between steps.
+ * A body is only queued once: destroying it wins over (de)activating it,
+ * otherwise the last request wins.
+ *
+ * @author Kevin Rutter
+ */
+public class WorldCommandBuffer
+{
+	private static final int NONE = 0;
+	private static final int DEACTIVATE = 1;
+	private static final int ACTIVATE = 2;
+	private static final int DESTROY = 3;
+
+	/**
+	 * Creates bodies once the world is unlocked.
+	 */
+	public interface CreateCommand
+	{
+		/**
+		 * @param world		The world to create the bodies in.
+		 */
+		void create(World world);
+	}
+
+	// what should happen to each queued body, and the order they were queued in
+	private final ObjectIntMap<Body> pending = new ObjectIntMap<Body>();
+	private final Array<Body> order = new Array<Body>();
+	private final Array<CreateCommand> creates = new Array<CreateCommand>();
+
+	// mutations applied since the counters were last reset
+	public int destroyed;
+	public int created;
+	public int activated;
+	public int deactivated;
+
+	/**
+	 * Queues a body to be destroyed.
+	 * @param body	The body.
+	 */
+	public void destroy(Body body)
+	{
+		enqueue(body, DESTROY);
+	}
+
+	/**
+	 * Queues a body to be taken out of the simulation without destroying it.
+	 * @param body	The body.
+	 */
+	public void deactivate(Body body)
+	{
+		enqueue(body, DEACTIVATE);
+	}
+
+	/**
+	 * Queues a deactivated body to be put back into the simulation.
+	 * @param body	The body.
+	 */
+	public void activate(Body body)
+	{
+		enqueue(body, ACTIVATE);
+	}
+
+	/**
+	 * Queues bodies to be created.
+	 * @param command	Creates the bodies.
+	 */
+	public void create(CreateCommand command)
+	{
+		creates.add(command);
+	}
+
+	/**
+	 * @param body		The body.
+	 * @param command	What to do with it.
+	 */
+	private void enqueue(Body body, int command)
+	{
+		int current = pending.get(body, NONE);
+		if (current == NONE)
+			order.add(body);
+		if (current != DESTROY)
+			pending.put(body, command);
+	}
+
+	/**
+	 * @return	If nothing is queued.
+	 */
+	public boolean isEmpty()
+	{
+		return order.size == 0 && creates.size == 0;
+	}
+
+	/**
+	 * Applies everything that was queued, in order: body changes first, then creations.
+	 * Must not be called while the world is stepping.
+	 * @param world		The world the bodies belong to.
+	 */
+	public void apply(World world)
+	{
+		for (int i = 0; i < order.size; i++)
+		{
+			Body body = order.get(i);
+			switch (pending.get(body, NONE))
+			{
+				case DEACTIVATE:
+					body.setActive(false);
+					deactivated++;
+					break;
+				case ACTIVATE:
+					body.setActive(true);
+					activated++;
+					break;
+				case DESTROY:
+					world.destroyBody(body);
+					destroyed++;
+					break;
+				default:
+					break;
+			}
+		}
+		for (int i = 0; i < creates.size; i++)
+		{
+			creates.get(i).create(world);
+			created++;
+		}
+		order.clear();
+		pending.clear();
+		creates.clear();
+	}
+
+	/**
+	 * Drops everything that was queued, e.g. when the world itself is thrown away.
+	 */
+	public void clear()
+	{
+		order.clear();
+		pending.clear();
+		creates.clear();
+	}
+
+	/**
+	 * @return	Total mutations applied since the counters were last reset.
+	 */
+	public int getAppliedCount()
+	{
+		return destroyed + created + activated + deactivated;
+	}
+
+	/**
+	 * Starts counting applied mutations from zero, called once per frame.
+	 */
+	public void resetCounters()
+	{
+		destroyed = 0;
+		created = 0;
+		activated = 0;
+		deactivated = 0;
+	}
+}
@@ -0,0 +1,72 @@
+package com.packetpub.libgdx.rutter.headless;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.packetpub.libgdx.rutter.util.Constants;
+import com.packetpub.libgdx.rutter.util.InputRecording;
+
+/**
+ * @author Kevin Rutter
+ * Runs the game's simulation without a window, for measuring it on any machine.
+ * Must run from the assets folder, like the desktop launcher.
+ *
+ * Arguments (all optional):
+ *   --level <image>      level to play when no recording is given (default: level 01)
+ *   --replay <file>      input recording to play, made with F9 in the game
+ *   --ticks <n>          ticks per run (default: length of the recording, or 3600)
+ *   --runs <n>           times the session is played (default: 3)
+ */
+public class HeadlessLauncher
+{
+	private static final int DEFAULT_TICKS = 3600;
+	private static final int DEFAULT_RUNS = 3;
+
+	/**
+	 * Main class to run the simulation
+	 */
+	public static void main(String[] arg) throws IOException
+	{
+		String level = Constants.LEVEL_01;
+		String replay = null;
+		int ticks = -1;
+		int runs = DEFAULT_RUNS;
+		for (int i = 0; i < arg.length; i++)
+		{
+			if (i + 1 >= arg.length)
+				usage("missing value for " + arg[i]);
+			else if (arg[i].equals("--level"))
+				level = arg[++i];
+			else if (arg[i].equals("--replay"))
+				replay = arg[++i];
+			else if (arg[i].equals("--ticks"))
+				ticks = Integer.parseInt(arg[++i]);
+			else if (arg[i].equals("--runs"))
+				runs = Integer.parseInt(arg[++i]);
+			else
+				usage("unknown argument " + arg[i]);
+		}
+
+		// without a recording the riceball just stands there
+		InputRecording recording = replay != null
+				? InputRecording.load(new File(replay))
+				: new InputRecording(0, Constants.PHYSICS_TICK_RATE, level);
+		if (ticks < 0)
+			ticks = recording.size() > 0 ? recording.size() : DEFAULT_TICKS;
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		new HeadlessApplication(new SimulationRunner(recording, ticks, runs), config);
+	}
+
+	/**
+	 * Prints how to use the launcher and quits.
+	 */
+	private static void usage(String problem)
+	{
+		System.err.println(problem);
+		System.err.println("usage: [--level <image>] [--replay <file>] [--ticks <n>] [--runs <n>]");
+		System.exit(1);
+	}
+}
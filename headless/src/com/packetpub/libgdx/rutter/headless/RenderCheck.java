@@ -0,0 +1,106 @@
+package com.packetpub.libgdx.rutter.headless;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.packetpub.libgdx.rutter.game.Assets;
+import com.packetpub.libgdx.rutter.game.WorldController;
+import com.packetpub.libgdx.rutter.game.WorldRenderer;
+import com.packetpub.libgdx.rutter.util.Constants;
+import com.packetpub.libgdx.rutter.util.GamePreferences;
+
+/**
+ * @author Kevin Rutter
+ * Checks that drawing a frame creates no garbage once nothing on screen changes.
+ * Renders the first level with the HUD and the fps counter on through NullGL,
+ * then renders more frames without touching the game and counts the bytes they
+ * allocated. Exits with 1 if that is more than NOISE_BYTES: the JIT recompiling
+ * code now and then allocates a few hundred bytes on the thread it stops, even
+ * though the frames make no garbage. One object per frame is already more than
+ * that over the default number of frames. Must run from the assets folder.
+ *
+ * Arguments (optional):
+ *   <frames>      frames measured (default: 600)
+ */
+public class RenderCheck extends Game
+{
+	private static final int DEFAULT_FRAMES = 600;
+	// frames rendered first, so caches are built, the HUD text is laid out and the JIT has settled
+	private static final int WARMUP_FRAMES = 3000;
+	// bytes the measured frames may allocate in total, for the JIT; the smallest object is 16
+	private static final int NOISE_BYTES = 1024;
+
+	private final int frames;
+	private boolean failed;
+
+	/**
+	 * Constructor for RenderCheck.
+	 * @param frames	Number of frames measured.
+	 */
+	public RenderCheck(int frames)
+	{
+		this.frames = frames;
+	}
+
+	@Override
+	public void create()
+	{
+		Gdx.app.setLogLevel(Application.LOG_ERROR);
+		NullGL.install();
+		Assets.instance.init(new AssetManager());
+		GamePreferences.instance.showFpsCounter = true;
+		WorldController worldController = new WorldController(this, Constants.LEVEL_01);
+		WorldRenderer worldRenderer = new WorldRenderer(worldController);
+		worldRenderer.resize(800, 480);
+
+		for (int i = 0; i < WARMUP_FRAMES; i++)
+			worldRenderer.render();
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		// what asking for the count costs, so only the frames are counted
+		long overhead = -SimulationRunner.getAllocatedBytes(threads) + SimulationRunner.getAllocatedBytes(threads);
+		long allocated = SimulationRunner.getAllocatedBytes(threads);
+		for (int i = 0; i < frames; i++)
+			worldRenderer.render();
+		allocated = SimulationRunner.getAllocatedBytes(threads) - allocated - overhead;
+
+		if (overhead < 0 || allocated < 0)
+			System.out.println("render check skipped: the JVM can't count allocated bytes");
+		else
+		{
+			failed = allocated > NOISE_BYTES;
+			System.out.println(String.format("render check: %d frames allocated %d bytes%s", frames, allocated,
+					failed ? ", they should allocate nothing" : ""));
+		}
+
+		worldRenderer.dispose();
+		worldController.dispose();
+		Assets.instance.dispose();
+		// the exit code is what a build looks at
+		System.exit(failed ? 1 : 0);
+	}
+
+	/**
+	 * There are no screens without a window.
+	 */
+	@Override
+	public void setScreen(Screen screen)
+	{
+	}
+
+	/**
+	 * Main class to run the check
+	 */
+	public static void main(String[] arg)
+	{
+		int frames = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_FRAMES;
+		new HeadlessApplication(new RenderCheck(frames), new HeadlessApplicationConfiguration());
+	}
+}
@@ -0,0 +1,187 @@
+package com.packetpub.libgdx.rutter.headless;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.packetpub.libgdx.rutter.game.Assets;
+import com.packetpub.libgdx.rutter.game.WorldController;
+import com.packetpub.libgdx.rutter.util.FrameProfiler;
+import com.packetpub.libgdx.rutter.util.FrameProfiler.Phase;
+import com.packetpub.libgdx.rutter.util.InputRecording;
+
+/**
+ * @author Kevin Rutter
+ * Plays a level with recorded input as fast as possible and reports how fast the
+ * simulation ran. Every update of the WorldController is exactly one physics tick
+ * at the recording's tick rate.
+ * Each run starts the level over from the recording's seed, so all runs play the
+ * same session; the first runs warm up the JIT.
+ */
+public class SimulationRunner extends Game
+{
+	private static final String TAG = SimulationRunner.class.getName();
+
+	private final InputRecording recording;
+	private final int ticks;
+	private final int runs;
+
+	private WorldController worldController;
+	// set when the game tries to leave for the menu after game over
+	private boolean gameEnded;
+
+	/**
+	 * Constructor for SimulationRunner.
+	 * @param recording		The input to play, its level is the level that runs.
+	 * @param ticks			Number of ticks per run, the game may end earlier.
+	 * @param runs			Number of times the session is played.
+	 */
+	public SimulationRunner(InputRecording recording, int ticks, int runs)
+	{
+		this.recording = recording;
+		this.ticks = ticks;
+		this.runs = runs;
+	}
+
+	@Override
+	public void create()
+	{
+		Gdx.app.setLogLevel(Application.LOG_ERROR);
+		NullGL.install();
+		Assets.instance.init(new AssetManager());
+		worldController = new WorldController(this, recording.getLevel());
+
+		for (int run = 1; run <= runs; run++)
+			run(run);
+
+		worldController.dispose();
+		Assets.instance.dispose();
+		Gdx.app.exit();
+	}
+
+	/**
+	 * There are no screens without a window; going to the menu means the game ended.
+	 */
+	@Override
+	public void setScreen(Screen screen)
+	{
+		gameEnded = true;
+	}
+
+	/**
+	 * Plays the session once and prints the results.
+	 * @param run	Number of the run, from 1.
+	 */
+	private void run(int run)
+	{
+		// one update per tick at the rate the session was recorded at
+		float timeStep = 1.0f / recording.getTickRate();
+		FrameProfiler profiler = FrameProfiler.instance;
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		long[] tickTimes = new long[ticks];
+
+		gameEnded = false;
+		worldController.startReplay(recording);
+		// an update of an ended game does nothing, the run would measure nothing
+		if (worldController.gameEnded)
+			throw new IllegalStateException("game still ended after restarting the replay");
+		profiler.reset();
+		profiler.enabled = true;
+
+		long gcCount = getGcCount();
+		long gcTime = getGcTime();
+		long allocated = getAllocatedBytes(threads);
+		long start = TimeUtils.nanoTime();
+		int tick = 0;
+		while (tick < ticks && !gameEnded)
+		{
+			long tickStart = TimeUtils.nanoTime();
+			profiler.beginFrame();
+			worldController.update(timeStep);
+			tickTimes[tick++] = TimeUtils.nanoTime() - tickStart;
+		}
+		// closes the last tick's frame
+		profiler.beginFrame();
+		long elapsed = TimeUtils.nanoTime() - start;
+		allocated = getAllocatedBytes(threads) - allocated;
+		gcCount = getGcCount() - gcCount;
+		gcTime = getGcTime() - gcTime;
+		profiler.enabled = false;
+
+		double seconds = elapsed / 1e9;
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("run %d/%d: %d ticks in %.1f ms, %.0f ticks/s%s%n", run, runs, tick,
+				elapsed / 1e6, tick / seconds, gameEnded ? " (game ended)" : ""));
+		if (allocated >= 0)
+			report.append(String.format("  allocated %.2f MB, %.2f MB/s, %.0f bytes/tick%n",
+					allocated / 1048576.0, allocated / 1048576.0 / seconds, (double)allocated / Math.max(1, tick)));
+		report.append(String.format("  gc: %d collections, %d ms%n", gcCount, gcTime));
+		Arrays.sort(tickTimes, 0, tick);
+		report.append(String.format("  tick: p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+				percentile(tickTimes, tick, 0.50f) / 1e6, percentile(tickTimes, tick, 0.95f) / 1e6,
+				percentile(tickTimes, tick, 0.99f) / 1e6, tick > 0 ? tickTimes[tick - 1] / 1e6 : 0));
+		report.append("  per tick:");
+		for (Phase phase : Phase.values())
+		{
+			// nothing is drawn here
+			if (phase == Phase.CULLING || phase == Phase.WORLD_RENDER || phase == Phase.GUI_RENDER)
+				continue;
+			report.append(String.format(" %s %.4f ms", phase.getLabel(), profiler.getTotal(phase) / 1e6 / Math.max(1, tick)));
+		}
+		report.append(String.format("%n  end: %s", worldController.describeState()));
+		System.out.println(report);
+	}
+
+	/**
+	 * @return	The value below which a fraction of the sorted times lie.
+	 */
+	private static long percentile(long[] sorted, int count, float fraction)
+	{
+		if (count == 0)
+			return 0;
+		int index = (int)Math.ceil(fraction * count) - 1;
+		return sorted[Math.max(0, Math.min(count - 1, index))];
+	}
+
+	/**
+	 * @return	Bytes allocated by this thread so far, or -1 if the JVM can't tell.
+	 */
+	static long getAllocatedBytes(ThreadMXBean threads)
+	{
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return -1;
+		return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * @return	Garbage collections so far, over all collectors.
+	 */
+	private static long getGcCount()
+	{
+		long count = 0;
+		List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+		for (GarbageCollectorMXBean gc : gcs)
+			count += Math.max(0, gc.getCollectionCount());
+		return count;
+	}
+
+	/**
+	 * @return	Milliseconds spent collecting garbage so far, over all collectors.
+	 */
+	private static long getGcTime()
+	{
+		long time = 0;
+		List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+		for (GarbageCollectorMXBean gc : gcs)
+			time += Math.max(0, gc.getCollectionTime());
+		return time;
+	}
+}